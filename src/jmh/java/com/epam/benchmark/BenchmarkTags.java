@@ -0,0 +1,25 @@
+package com.epam.benchmark;
+
+import com.epam.model.Tag;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+final class BenchmarkTags {
+    private BenchmarkTags() {
+    }
+
+    static Set<String> fromPeriods(String periods) {
+        return Arrays.stream(periods.split("\\+"))
+                .map(period -> BlogDataset.tagName(Integer.parseInt(period.trim())))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    static Set<Tag> named(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Tag(prefix + i))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,98 @@
+package com.epam.benchmark;
+
+import com.epam.BlogApiApplication;
+import com.epam.index.PostSearchIndex;
+import com.epam.index.TagIndex;
+import com.epam.repository.TagPostCountRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class BlogDataset {
+    // Post i carries tag "every-k" when i is divisible by k, so each tag matches 1/k of the generated posts
+    public static final int[] TAG_PERIODS = {1, 2, 10, 100, 1000};
+    public static final long FIRST_ID = 1000;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Param("10000")
+    public int posts;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BlogApiApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command line arguments, unlike default properties, take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.output.ansi.enabled=never",
+                        "--logging.level.root=WARN");
+
+        seed(context.getBean(JdbcTemplate.class), posts);
+        context.getBean(TagIndex.class).rebuild();
+        context.getBean(PostSearchIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public static String tagName(int period) {
+        return "every-" + period;
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int posts) {
+        List<Object[]> tags = new ArrayList<>();
+        for (int period : TAG_PERIODS) {
+            tags.add(new Object[]{tagName(period)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tag (name) VALUES (?)", tags);
+
+        List<Object[]> postRows = new ArrayList<>(INSERT_BATCH_SIZE);
+        List<Object[]> linkRows = new ArrayList<>(INSERT_BATCH_SIZE * 2);
+        for (int i = 1; i <= posts; i++) {
+            long id = FIRST_ID + i;
+            postRows.add(new Object[]{id, "Generated post " + i, "Generated content number " + i + " about java and spring"});
+            for (int period : TAG_PERIODS) {
+                if (i % period == 0) {
+                    linkRows.add(new Object[]{id, tagName(period)});
+                }
+            }
+
+            if (postRows.size() == INSERT_BATCH_SIZE || i == posts) {
+                jdbcTemplate.batchUpdate("INSERT INTO post (id, title, content) VALUES (?, ?, ?)", postRows);
+                jdbcTemplate.batchUpdate("INSERT INTO posts_tags (post_id, tag_id) SELECT ?, id FROM tag WHERE name = ?",
+                        linkRows);
+                postRows.clear();
+                linkRows.clear();
+            }
+        }
+
+        // Every stripe of the generated tags, data.sql already made those of its own
+        jdbcTemplate.update("""
+                INSERT INTO tag_post_count (tag_id, stripe, post_count)
+                SELECT t.id, s.x, CASE WHEN s.x = 0 THEN (SELECT COUNT(*) FROM posts_tags pt WHERE pt.tag_id = t.id) ELSE 0 END
+                FROM tag t CROSS JOIN SYSTEM_RANGE(0, ?) s WHERE t.name LIKE 'every-%'""", TagPostCountRepository.STRIPES - 1);
+
+        // Keep ids handed out by the pooled sequence clear of the generated rows
+        jdbcTemplate.execute("ALTER SEQUENCE post_id_seq RESTART WITH " + (FIRST_ID + posts + 100));
+    }
+}
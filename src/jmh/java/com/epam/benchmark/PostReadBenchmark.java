@@ -0,0 +1,81 @@
+package com.epam.benchmark;
+
+import com.epam.config.CacheConfig;
+import com.epam.dto.PostView;
+import com.epam.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostReadBenchmark {
+    @Param({"0", "100"})
+    public int page;
+
+    private PostService postService;
+    private PageRequest pageRequest;
+
+    @State(Scope.Benchmark)
+    public static class TagFilter {
+        // Periods from BlogDataset.TAG_PERIODS joined with '+', from one broad tag up to five tags down to 0.1% selectivity
+        @Param({"2", "10", "1000", "2+10", "10+100", "2+10+100", "1+2+10+100", "1+2+10+100+1000"})
+        public String tagPeriods;
+
+        // Without writes every call after the first is a hit, uncached runs measure the planner and its queries
+        @Param({"false", "true"})
+        public boolean filterCache;
+
+        private Set<String> tags;
+        private Cache<Object, Object> filterResults;
+
+        @Setup(Level.Trial)
+        public void setUp(BlogDataset dataset) {
+            tags = BenchmarkTags.fromPeriods(tagPeriods);
+            filterResults = dataset.bean(CacheManager.class).getCache(CacheConfig.TAG_FILTER_REGION);
+        }
+
+        @Setup(Level.Invocation)
+        public void forgetResults() {
+            if (!filterCache) {
+                filterResults.clear();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(BlogDataset dataset) {
+        postService = dataset.bean(PostService.class);
+        pageRequest = PageRequest.of(page, 20);
+    }
+
+    @Benchmark
+    public List<PostView> findAll() {
+        return postService.findAll(pageRequest, false);
+    }
+
+    @Benchmark
+    public List<PostView> findByAllTags(TagFilter filter) {
+        return postService.findByAllTags(filter.tags, pageRequest, false);
+    }
+}
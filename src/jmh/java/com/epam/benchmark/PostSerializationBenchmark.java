@@ -0,0 +1,52 @@
+package com.epam.benchmark;
+
+import com.epam.dto.PostView;
+import com.epam.service.PostService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostSerializationBenchmark {
+    @Param({"20", "100", "1000"})
+    public int pageSize;
+
+    @Param({"false", "true"})
+    public boolean summary;
+
+    private ObjectWriter writer;
+    private List<PostView> page;
+
+    @Setup(Level.Trial)
+    public void setUp(BlogDataset dataset) {
+        // The same mapper Spring MVC uses for responses, loaded once so only serialization is measured
+        writer = dataset.bean(ObjectMapper.class).writer();
+        page = dataset.bean(PostService.class).findAll(PageRequest.of(0, pageSize), summary);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
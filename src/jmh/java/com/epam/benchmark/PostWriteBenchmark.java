@@ -0,0 +1,74 @@
+package com.epam.benchmark;
+
+import com.epam.model.Post;
+import com.epam.model.Tag;
+import com.epam.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostWriteBenchmark {
+    @Param({"1", "10", "50"})
+    public int tagCount;
+
+    private PostService postService;
+    private Set<Tag> createTags;
+    private Set<Tag> firstTags;
+    private Set<Tag> secondTags;
+    private boolean useFirstTags;
+    private long updatedPostId;
+
+    @Setup(Level.Trial)
+    public void setUp(BlogDataset dataset) {
+        postService = dataset.bean(PostService.class);
+        createTags = BenchmarkTags.named("create-", tagCount);
+        // Both sets share half of their tags, so every update adds and removes links
+        firstTags = BenchmarkTags.named("update-", tagCount);
+        secondTags = BenchmarkTags.named("update-", tagCount / 2);
+        secondTags.addAll(BenchmarkTags.named("other-", tagCount - tagCount / 2));
+        updatedPostId = BlogDataset.FIRST_ID + 1;
+    }
+
+    @Benchmark
+    public Post create() {
+        Post post = new Post();
+        post.setTitle("Benchmark post");
+        post.setContent("Benchmark content");
+        post.setTags(copyOf(createTags));
+
+        return postService.create(post);
+    }
+
+    @Benchmark
+    public Post updateTags() {
+        useFirstTags = !useFirstTags;
+
+        return postService.updateTags(updatedPostId, copyOf(useFirstTags ? firstTags : secondTags));
+    }
+
+    private static Set<Tag> copyOf(Set<Tag> tags) {
+        Set<Tag> copy = new HashSet<>();
+        tags.forEach(tag -> copy.add(new Tag(tag.getName())));
+
+        return copy;
+    }
+}
@@ -0,0 +1,122 @@
+package com.epam.benchmark;
+
+import com.epam.BlogApiApplication;
+import com.epam.index.PostSearchIndex;
+import com.epam.index.TagIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Concurrent HTTP clients against a running server, comparing Tomcat on platform threads with virtual threads
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class RequestLoadBenchmark {
+    private static final String NEW_POST = """
+            {"title": "Load test post", "content": "Load test content", "tags": [{"name": "load"}, {"name": "test"}]}""";
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param("10000")
+    public int posts;
+
+    // Connections available to the virtual variant, the platform one keeps Hikari's default
+    @Param("50")
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI postsUri;
+
+    @Setup(Level.Trial)
+    public void start() {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need a Java 21 build and runtime, run with -P java21");
+        }
+
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // Hundreds of clients creating the same new tags at once wait on each other's uncommitted rows
+                // for longer than H2's default 1s lock timeout, and Hikari discards connections that hit it
+                "--spring.datasource.url=jdbc:h2:mem:load;LOCK_TIMEOUT=10000",
+                "--spring.jpa.show-sql=false",
+                "--spring.output.ansi.enabled=never",
+                "--logging.level.root=WARN"));
+        if (virtual) {
+            args.add("--spring.datasource.hikari.maximum-pool-size=" + poolSize);
+        }
+
+        context = new SpringApplicationBuilder(BlogApiApplication.class)
+                .profiles(virtual ? new String[]{"virtual-threads"} : new String[0])
+                .run(args.toArray(String[]::new));
+
+        BlogDataset.seed(context.getBean(JdbcTemplate.class), posts);
+        context.getBean(TagIndex.class).rebuild();
+        context.getBean(PostSearchIndex.class).rebuild();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        postsUri = URI.create("http://localhost:" + port + "/api/v1/posts");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getAll() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(postsUri + "?size=20&page=10")).GET().build();
+
+        return send(request);
+    }
+
+    @Benchmark
+    public int createPost() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(postsUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(NEW_POST))
+                .build();
+
+        return send(request);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Request failed with status " + response.statusCode());
+        }
+
+        return response.statusCode();
+    }
+}
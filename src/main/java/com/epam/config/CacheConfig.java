@@ -0,0 +1,83 @@
+package com.epam.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class CacheConfig {
+    public static final String POST_REGION = "post";
+    public static final String POST_TAGS_REGION = "post.tags";
+    public static final String TAG_REGION = "tag";
+    public static final String TAG_FILTER_REGION = "posts-by-tags";
+    private static final List<String> REGIONS = List.of(POST_REGION, POST_TAGS_REGION, TAG_REGION, TAG_FILTER_REGION);
+
+    @Bean
+    public Cache<String, Long> tagIdCache(@Value("${blog.tags.cache.maximum-size:10000}") long maximumSize,
+                                          @Value("${blog.tags.cache.expire-after-access:1h}") Duration expireAfterAccess) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public MeterBinder tagIdCacheMetrics(Cache<String, Long> tagIdCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, tagIdCache, "tagIdCache");
+    }
+
+    // Every region is sized from blog.cache.<region>.maximum-size, expire-after-access and, where set,
+    // expire-after-write. Each application context gets its own manager, the provider would otherwise share one
+    // between contexts in the same JVM
+    @Bean(destroyMethod = "close")
+    public CacheManager regionCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("blog-api:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(
+                    environment.getProperty("blog.cache." + region + ".maximum-size", Long.class, 10_000L)));
+            configuration.setExpireAfterAccess(OptionalLong.of(TimeUnit.NANOSECONDS.convert(
+                    environment.getProperty("blog.cache." + region + ".expire-after-access", Duration.class, Duration.ofHours(1)))));
+            Duration expireAfterWrite = environment.getProperty("blog.cache." + region + ".expire-after-write", Duration.class);
+            if (expireAfterWrite != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.NANOSECONDS.convert(expireAfterWrite)));
+            }
+            configuration.setNativeStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer regionCacheManagerCustomizer(CacheManager regionCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, regionCacheManager);
+    }
+
+    @Bean
+    public MeterBinder regionCacheMetrics(CacheManager regionCacheManager) {
+        return registry -> REGIONS.forEach(region -> CaffeineCacheMetrics.monitor(registry,
+                regionCacheManager.getCache(region).unwrap(Cache.class), region));
+    }
+}
@@ -0,0 +1,68 @@
+package com.epam.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Boot backs off its JDBC DataSource as soon as an R2DBC ConnectionFactory exists, so it is declared here
+// for JPA, together with the script initializer that would otherwise run the schema over R2DBC instead
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, SqlInitializationProperties.class})
+public class DataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Replica pools are sized and tuned like the primary one, only their URL differs
+    @Bean
+    @ConditionalOnProperty("blog.datasource.replicas.urls")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource dataSource, MeterRegistry meterRegistry,
+            @Value("${blog.datasource.replicas.urls}") List<String> urls,
+            @Value("${blog.datasource.replicas.lag-query:SELECT 0}") String lagQuery,
+            @Value("${blog.datasource.replicas.max-lag:PT10S}") Duration maxLag) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            dataSource.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setPoolName("replica-" + (i + 1));
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+
+        return new ReplicaRoutingDataSource(dataSource, replicas, lagQuery, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty("blog.datasource.replicas.urls")
+    public LazyConnectionDataSourceProxy routingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource, SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+}
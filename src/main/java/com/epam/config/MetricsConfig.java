@@ -0,0 +1,60 @@
+package com.epam.config;
+
+import com.epam.metrics.SqlStatementCounter;
+import com.epam.metrics.SqlStatementMetricsFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+@Configuration
+public class MetricsConfig {
+    public static final String NO_TAG_FILTER = "n/a";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry, (ProceedingJoinPoint joinPoint) -> Tags.of(
+                "class", joinPoint.getStaticPart().getSignature().getDeclaringTypeName(),
+                "method", joinPoint.getStaticPart().getSignature().getName(),
+                "tags", tagCountBucket(joinPoint)));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(
+            SqlStatementCounter sqlStatementCounter, MeterRegistry registry) {
+        return new FilterRegistrationBean<>(new SqlStatementMetricsFilter(sqlStatementCounter, registry));
+    }
+
+    // Tag filters are the only Set<String> parameters, bucketed so each filter shape gets its own series
+    public static String tagCountBucket(ProceedingJoinPoint joinPoint) {
+        Type[] parameterTypes = ((MethodSignature) joinPoint.getSignature()).getMethod().getGenericParameterTypes();
+        Object[] args = joinPoint.getArgs();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] instanceof ParameterizedType type && type.getRawType() == Set.class
+                    && type.getActualTypeArguments()[0] == String.class && args[i] instanceof Set<?> tags) {
+                return switch (tags.size()) {
+                    case 0, 1, 2 -> String.valueOf(tags.size());
+                    case 3, 4, 5 -> "3-5";
+                    default -> "6+";
+                };
+            }
+        }
+
+        return NO_TAG_FILTER;
+    }
+}
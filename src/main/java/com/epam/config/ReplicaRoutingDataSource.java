@@ -0,0 +1,135 @@
+package com.epam.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-only transactions go to a replica, everything else to the primary. Has to sit behind a
+// LazyConnectionDataSourceProxy, a transaction is only marked read-only after it asked for its connection
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final String PRIMARY = "primary";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, String lagQuery,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name(), replica.pool));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        replicas.forEach(replica -> Gauge.builder("blog.datasource.replica.lag", replica, Replica::lagSeconds)
+                .tag("replica", replica.name())
+                .baseUnit("seconds")
+                .register(meterRegistry));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        return pickReplica().map(Replica::name).orElse(PRIMARY);
+    }
+
+    // The replica with the fewest connections in use wins. The scan starts one further each time, so ties,
+    // idle replicas included, are taken in turn
+    private Optional<Replica> pickReplica() {
+        if (replicas.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.usable) {
+                continue;
+            }
+
+            int active = replica.pool.getHikariPoolMXBean().getActiveConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+
+        return Optional.ofNullable(best);
+    }
+
+    // A replica that is too far behind, or does not answer, serves no reads until a later check finds it back
+    @Scheduled(fixedDelayString = "${blog.datasource.replicas.lag-check-interval:PT5S}")
+    public void checkLag() {
+        replicas.forEach(replica -> {
+            Double lag;
+            try {
+                lag = replica.jdbcTemplate.queryForObject(lagQuery, Double.class);
+            } catch (DataAccessException e) {
+                if (replica.usable) {
+                    LOGGER.warn("Could not check replication lag of {}, reading from the primary instead",
+                            replica.name(), e);
+                }
+                replica.usable = false;
+                return;
+            }
+
+            replica.lagSeconds = lag == null ? 0 : lag;
+            boolean usable = replica.lagSeconds * 1000 <= maxLag.toMillis();
+            if (replica.usable != usable) {
+                LOGGER.info("Replica {} is {}s behind, {}", replica.name(), replica.lagSeconds,
+                        usable ? "reading from it again" : "reading from the primary instead");
+            }
+            replica.usable = usable;
+        });
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbcTemplate;
+        // Unknown until the first check, reads stay on the primary until then
+        private volatile boolean usable;
+        private volatile double lagSeconds;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+            this.jdbcTemplate = new JdbcTemplate(pool);
+        }
+
+        private String name() {
+            return pool.getPoolName();
+        }
+
+        private double lagSeconds() {
+            return lagSeconds;
+        }
+    }
+}
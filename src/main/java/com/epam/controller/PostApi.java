@@ -1,25 +1,67 @@
 package com.epam.controller;
 
+import com.epam.dto.PostBatchReport;
+import com.epam.dto.PostView;
 import com.epam.model.Post;
 import com.epam.model.Tag;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 
 @io.swagger.v3.oas.annotations.tags.Tag(name = "Blog Post", description = "the blog post API")
 public interface PostApi {
-    @Operation(summary = "Get all posts with or without pagination/sorting and filtering by tags")
-    public ResponseEntity<List<Post>> getAll(Set<String> tags, Pageable pageable);
+    @Operation(summary = "Get all posts with or without pagination/sorting and filtering by tags",
+            description = "Full pages sorted by id or title carry an X-Next-Cursor header. Pass it back as 'after' "
+                    + "to fetch the next page by keyset instead of offset; page and sort are then taken from the cursor. "
+                    + "With count=true the X-Total-Count header holds the number of matching posts from a cached counter. "
+                    + "With summary=true post content is cut to its first 200 characters. "
+                    + "Responses carry an ETag, send it back in If-None-Match to get 304 while no matching post changed",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Posts found"),
+                    @ApiResponse(responseCode = "304", description = "Posts not modified since the given ETag"),
+                    @ApiResponse(responseCode = "400", description = "Malformed 'after' cursor")})
+    public ResponseEntity<List<PostView>> getAll(Set<String> tags, String after, boolean count, boolean summary,
+                                                 Pageable pageable, @Parameter(hidden = true) WebRequest webRequest);
+
+    @Operation(summary = "Search posts by keywords in title and content, best matches first",
+            description = "Words in the title weigh more than words in the content. Combine with tag to only search "
+                    + "posts that have all given tags. Sorting parameters are ignored, results are ranked by relevance",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ranked posts found"),
+                    @ApiResponse(responseCode = "422", description = "Empty search query"),
+                    @ApiResponse(responseCode = "503", description = "Search index is still being built, retry later")})
+    public ResponseEntity<List<PostView>> search(@NotBlank(message = "Search query cannot be empty") String query, Set<String> tags, boolean summary, Pageable pageable);
+
+    @Operation(summary = "Export posts as newline-delimited JSON, one post per line in ascending id order",
+            description = "The response is streamed from the database, so any number of posts can be exported. "
+                    + "Pass the last exported id as since-id to only get posts created after it")
+    public ResponseEntity<StreamingResponseBody> exportPosts(Set<String> tags, long sinceId);
 
-    @Operation(summary = "Get one post")
-    public ResponseEntity<Post> getOne(long id);
+    @Operation(summary = "Get one post",
+            description = "The response carries an ETag, send it back in If-None-Match to get 304 while the post is unchanged. "
+                    + "Larger posts are sent gzip-compressed to clients accepting it",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Post found",
+                            content = @Content(schema = @Schema(implementation = Post.class))),
+                    @ApiResponse(responseCode = "304", description = "Post not modified since the given ETag"),
+                    @ApiResponse(responseCode = "404", description = "Post not found")})
+    public ResponseEntity<byte[]> getOne(long id, @Parameter(hidden = true) WebRequest webRequest);
 
     @Operation(summary = "Create new post",
             responses = {
@@ -28,12 +70,26 @@ public interface PostApi {
     public ResponseEntity<Post> createPost(@Valid Post post, BindingResult bindingResult,
                                            UriComponentsBuilder uriComponentsBuilder);
 
+    @Operation(summary = "Create many posts at once from a JSON array of posts",
+            description = "Posts are validated one by one and saved in chunked transactions. The report lists the "
+                    + "new id or the errors of every item by its index in the array. A chunk that fails to save is "
+                    + "reported as failed as a whole, earlier chunks stay saved",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    array = @ArraySchema(schema = @Schema(implementation = Post.class)))),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed, check the report for failed items"),
+                    @ApiResponse(responseCode = "400", description = "Body is not a JSON array")})
+    public ResponseEntity<PostBatchReport> createPosts(@Parameter(hidden = true) InputStream body) throws IOException;
+
     @Operation(summary = "Update tags of the post. You can provide list of tag objects or a simple string list of names",
+            description = "Send the post's ETag in If-Match to only update the version you have seen. "
+                    + "The response carries the ETag of the updated post",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Tags updated successfully"),
                     @ApiResponse(responseCode = "404", description = "Post not found"),
+                    @ApiResponse(responseCode = "412", description = "Post was changed since the given ETag or by a concurrent update"),
                     @ApiResponse(responseCode = "422", description = "Bad input, check body for error messages")})
-    public ResponseEntity<Post> updatePostTags(long id, @Valid Set<Tag> tags);
+    public ResponseEntity<Post> updatePostTags(long id, @Valid Set<Tag> tags, String ifMatch);
 
     @Operation(summary = "Delete the post",
             responses = {
@@ -1,11 +1,23 @@
 package com.epam.controller;
 
+import com.epam.dto.PostBatchReport;
+import com.epam.dto.PostView;
+import com.epam.exception.PostVersionConflictException;
+import com.epam.index.PostResponseCache;
 import com.epam.model.Post;
 import com.epam.model.Tag;
+import com.epam.pagination.PostCursor;
+import com.epam.service.PostBatchService;
+import com.epam.service.PostExportService;
 import com.epam.service.PostService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
@@ -15,41 +27,126 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.Set;
 
 @RestController
-@RequestMapping(value = "/api/v1/posts", produces = {"application/JSON"})
+@RequestMapping(value = "/api/v1", produces = {"application/JSON"})
 @Validated
 public class PostController implements PostApi {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String NDJSON = "application/x-ndjson";
     private final PostService postService;
+    private final PostBatchService postBatchService;
+    private final PostExportService postExportService;
+    private final PostResponseCache postResponseCache;
 
     @Autowired
-    public PostController(PostService postService) {
+    public PostController(PostService postService, PostBatchService postBatchService,
+                          PostExportService postExportService, PostResponseCache postResponseCache) {
         this.postService = postService;
+        this.postBatchService = postBatchService;
+        this.postExportService = postExportService;
+        this.postResponseCache = postResponseCache;
     }
 
-    @GetMapping
-    public ResponseEntity<List<Post>> getAll(@RequestParam(value = "tag", required = false) Set<String> tags, Pageable pageable) {
-        if (tags != null && !tags.isEmpty()) {
-            return ResponseEntity.ok(postService.findByAllTags(tags, pageable));
+    @GetMapping("/posts")
+    public ResponseEntity<List<PostView>> getAll(@RequestParam(value = "tag", required = false) Set<String> tags,
+                                                 @RequestParam(value = "after", required = false) String after,
+                                                 @RequestParam(value = "count", defaultValue = "false") boolean count,
+                                                 @RequestParam(value = "summary", defaultValue = "false") boolean summary,
+                                                 Pageable pageable, WebRequest webRequest) {
+        // Taken before any data is read, so the tag never claims a newer state than the body holds
+        String eTag = listingETag(postService.listingVersion(tags == null ? Set.of() : tags));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
         }
 
-        return ResponseEntity.ok(postService.findAll(pageable));
+        // Without a sort the database picks the page order, and the next cursor could not continue from it
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        }
+
+        List<PostView> posts;
+        Sort sort = pageable.getSort();
+
+        if (after != null) {
+            PostCursor cursor = PostCursor.decode(after);
+            posts = postService.findAfter(tags == null ? Set.of() : tags, cursor, pageable.getPageSize(), summary);
+            sort = Sort.by(cursor.direction(), cursor.property());
+        } else if (tags != null && !tags.isEmpty()) {
+            posts = postService.findByAllTags(tags, pageable, summary);
+        } else {
+            posts = postService.findAll(pageable, summary);
+        }
+
+        ResponseEntity.BodyBuilder response = withNextCursor(posts, sort, pageable).eTag(eTag);
+        if (count) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(postService.count(tags == null ? Set.of() : tags)));
+        }
+
+        return response.body(posts);
+    }
+
+    @GetMapping("/posts/search")
+    public ResponseEntity<List<PostView>> search(@RequestParam("q") @NotBlank(message = "Search query cannot be empty") String query,
+                                                 @RequestParam(value = "tag", required = false) Set<String> tags,
+                                                 @RequestParam(value = "summary", defaultValue = "false") boolean summary,
+                                                 Pageable pageable) {
+        return ResponseEntity.ok(postService.search(query, tags == null ? Set.of() : tags, pageable, summary));
+    }
+
+    @GetMapping(value = "/posts:export", produces = {NDJSON})
+    public ResponseEntity<StreamingResponseBody> exportPosts(@RequestParam(value = "tag", required = false) Set<String> tags,
+                                                             @RequestParam(value = "since-id", defaultValue = "0") long sinceId) {
+        Set<String> tagFilter = tags == null ? Set.of() : tags;
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(output -> postExportService.export(tagFilter, sinceId, output));
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Post> getOne(@PathVariable("id") long id) {
-        return ResponseEntity.ok(postService.findById(id));
+    @GetMapping("/posts/{id}")
+    public ResponseEntity<byte[]> getOne(@PathVariable("id") long id, WebRequest webRequest) {
+        // Only a revalidating client benefits from the version lookup, everyone else needs the post anyway
+        boolean revalidating = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+        if (revalidating) {
+            long version = postResponseCache.getIfPresent(id)
+                    .map(PostResponseCache.SerializedPost::version)
+                    .orElseGet(() -> postService.findVersion(id));
+            if (webRequest.checkNotModified(postETag(id, version))) {
+                return null;
+            }
+        }
+
+        // Cached bytes are written as they are, the post is neither mapped nor compressed again
+        PostResponseCache.SerializedPost post = postResponseCache.get(id, postService::findById);
+        boolean gzip = post.gzip() != null && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(postETag(id, post.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(gzip ? post.gzip() : post.json());
     }
 
-    @PostMapping
+    @PostMapping("/posts")
     public ResponseEntity<Post> createPost(@RequestBody @Valid Post post, BindingResult bindingResult,
                                            UriComponentsBuilder uriComponentsBuilder) {
         Post createdPost = postService.create(post);
@@ -58,17 +155,83 @@ public class PostController implements PostApi {
         return ResponseEntity.created(location).body(createdPost);
     }
 
-    @PatchMapping("/{id}/tags")
-    public ResponseEntity<Post> updatePostTags(@PathVariable("id") long id, @RequestBody @Valid Set<Tag> tags) {
-        Post updatedPost = postService.updateTags(id, tags);
+    @PostMapping(value = "/posts:batch", consumes = {"application/JSON"})
+    public ResponseEntity<PostBatchReport> createPosts(InputStream body) throws IOException {
+        return ResponseEntity.ok(postBatchService.importPosts(body));
+    }
+
+    @PatchMapping("/posts/{id}/tags")
+    public ResponseEntity<Post> updatePostTags(@PathVariable("id") long id, @RequestBody @Valid Set<Tag> tags,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Post updatedPost = postService.updateTags(id, tags, expectedVersion(id, ifMatch));
 
-        return ResponseEntity.ok(updatedPost);
+        return ResponseEntity.ok()
+                .eTag(postETag(id, updatedPost.getVersion()))
+                .body(updatedPost);
     }
 
-    @DeleteMapping("/{id}")
+    @DeleteMapping("/posts/{id}")
     public ResponseEntity<String> deletePost(@PathVariable("id") long id) {
         postService.delete(id);
 
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Weak and foreign ETags never match, so a header made only of those fails the update
+    private static OptionalLong expectedVersion(long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return OptionalLong.empty();
+        }
+
+        String prefix = "\"" + id + ".";
+        for (String eTag : ifMatch.split(",")) {
+            String value = eTag.trim();
+            if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+                try {
+                    return OptionalLong.of(Long.parseLong(value.substring(prefix.length(), value.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of ours, try the next one
+                }
+            }
+        }
+
+        throw new PostVersionConflictException(id);
+    }
+
+    private String postETag(long id, long version) {
+        return "\"" + id + "." + version + "\"";
+    }
+
+    private String listingETag(String listingVersion) {
+        return "\"" + listingVersion + "\"";
+    }
+
+    private ResponseEntity.BodyBuilder withNextCursor(List<PostView> posts, Sort sort, Pageable pageable) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pageable.isUnpaged() || posts.size() < pageable.getPageSize()) {
+            return response;
+        }
+
+        PostCursor.after(posts.get(posts.size() - 1), sort)
+                .ifPresent(cursor -> response.header(NEXT_CURSOR_HEADER, cursor.encode()));
+
+        return response;
+    }
 }
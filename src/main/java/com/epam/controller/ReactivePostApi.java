@@ -0,0 +1,24 @@
+package com.epam.controller;
+
+import com.epam.dto.PostView;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@io.swagger.v3.oas.annotations.tags.Tag(name = "Blog Post (reactive)", description = "the non-blocking blog post read API")
+public interface ReactivePostApi {
+    @Operation(summary = "Stream posts as newline-delimited JSON, optionally only those having all given tags",
+            description = "Posts are read without blocking a request thread and written as the client consumes them. "
+                    + "Pages are taken in ascending id order, sorting parameters are ignored")
+    public Flux<PostView> getAll(Set<String> tags, Pageable pageable);
+
+    @Operation(summary = "Get one post without blocking a request thread",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Post found"),
+                    @ApiResponse(responseCode = "404", description = "Post not found")})
+    public Mono<PostView> getOne(long id);
+}
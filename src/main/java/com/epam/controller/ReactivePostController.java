@@ -0,0 +1,37 @@
+package com.epam.controller;
+
+import com.epam.dto.PostView;
+import com.epam.service.ReactivePostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/reactive")
+public class ReactivePostController implements ReactivePostApi {
+    private final ReactivePostService reactivePostService;
+
+    @Autowired
+    public ReactivePostController(ReactivePostService reactivePostService) {
+        this.reactivePostService = reactivePostService;
+    }
+
+    // Streamed one post per line, each written only once the client has taken the previous one
+    @GetMapping(value = "/posts", produces = {PostController.NDJSON})
+    public Flux<PostView> getAll(@RequestParam(value = "tag", required = false) Set<String> tags, Pageable pageable) {
+        return reactivePostService.findAll(tags == null ? Set.of() : tags, pageable);
+    }
+
+    @GetMapping(value = "/posts/{id}", produces = {"application/JSON"})
+    public Mono<PostView> getOne(@PathVariable("id") long id) {
+        return reactivePostService.findById(id);
+    }
+}
@@ -0,0 +1,22 @@
+package com.epam.controller;
+
+import com.epam.dto.TagPostCount;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+@io.swagger.v3.oas.annotations.tags.Tag(name = "Tag", description = "the tag API")
+public interface TagApi {
+    @Operation(summary = "Get the most used tags with the number of posts having each of them",
+            description = "Counts are kept up to date on every post write, so this never counts posts on request. "
+                    + "Tags with the same number of posts are ordered by name",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Tags found"),
+                    @ApiResponse(responseCode = "422", description = "'top' is out of range")})
+    public ResponseEntity<List<TagPostCount>> getTop(@Min(value = 1, message = "Top must be at least 1")
+                                                     @Max(value = 100, message = "Top must be at most 100") int top);
+}
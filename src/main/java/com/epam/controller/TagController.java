@@ -0,0 +1,34 @@
+package com.epam.controller;
+
+import com.epam.dto.TagPostCount;
+import com.epam.service.TagService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/v1", produces = {"application/JSON"})
+@Validated
+public class TagController implements TagApi {
+    private final TagService tagService;
+
+    @Autowired
+    public TagController(TagService tagService) {
+        this.tagService = tagService;
+    }
+
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagPostCount>> getTop(@RequestParam(value = "top", defaultValue = "10")
+                                                     @Min(value = 1, message = "Top must be at least 1")
+                                                     @Max(value = 100, message = "Top must be at most 100") int top) {
+        return ResponseEntity.ok(tagService.findMostUsed(top));
+    }
+}
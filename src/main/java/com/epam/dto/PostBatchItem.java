@@ -0,0 +1,16 @@
+package com.epam.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record PostBatchItem(int index, Long id, List<String> errors) {
+    public static PostBatchItem created(int index, long id) {
+        return new PostBatchItem(index, id, List.of());
+    }
+
+    public static PostBatchItem failed(int index, List<String> errors) {
+        return new PostBatchItem(index, null, errors);
+    }
+}
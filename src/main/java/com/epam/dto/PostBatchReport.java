@@ -0,0 +1,11 @@
+package com.epam.dto;
+
+import java.util.List;
+
+public record PostBatchReport(long created, long failed, List<PostBatchItem> items) {
+    public static PostBatchReport of(List<PostBatchItem> items) {
+        long created = items.stream().filter(item -> item.id() != null).count();
+
+        return new PostBatchReport(created, items.size() - created, items);
+    }
+}
@@ -0,0 +1,4 @@
+package com.epam.dto;
+
+public record PostRow(long id, String title, String content) {
+}
@@ -0,0 +1,4 @@
+package com.epam.dto;
+
+public record PostTagRow(long postId, long tagId, String tagName) {
+}
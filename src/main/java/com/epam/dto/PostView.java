@@ -0,0 +1,8 @@
+package com.epam.dto;
+
+import io.swagger.v3.oas.annotations.Hidden;
+
+import java.util.List;
+
+public record PostView(@Hidden long id, String title, String content, List<TagView> tags) {
+}
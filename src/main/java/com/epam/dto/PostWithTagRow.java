@@ -0,0 +1,4 @@
+package com.epam.dto;
+
+public record PostWithTagRow(long id, String title, String content, Long tagId, String tagName) {
+}
@@ -0,0 +1,6 @@
+package com.epam.dto;
+
+import io.swagger.v3.oas.annotations.Hidden;
+
+public record TagView(@Hidden long id, String name) {
+}
@@ -0,0 +1,36 @@
+package com.epam.event;
+
+import com.epam.model.Post;
+import com.epam.model.Tag;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public record PostChangedEvent(Type type, long postId, Set<String> oldTags, Set<String> newTags,
+                               String title, String content) {
+    public enum Type {
+        CREATED, TAGS_UPDATED, DELETED
+    }
+
+    // Title and content never change after creation, so only CREATED events carry them
+    public PostChangedEvent(Type type, long postId, Set<String> oldTags, Set<String> newTags) {
+        this(type, postId, oldTags, newTags, null, null);
+    }
+
+    public static PostChangedEvent created(Post post) {
+        return new PostChangedEvent(Type.CREATED, post.getId(), Set.of(), tagNames(post.getTags()),
+                post.getTitle(), post.getContent());
+    }
+
+    public static PostChangedEvent tagsUpdated(long postId, Set<Tag> oldTags, Set<Tag> newTags) {
+        return new PostChangedEvent(Type.TAGS_UPDATED, postId, tagNames(oldTags), tagNames(newTags));
+    }
+
+    public static PostChangedEvent deleted(Post post) {
+        return new PostChangedEvent(Type.DELETED, post.getId(), tagNames(post.getTags()), Set.of());
+    }
+
+    private static Set<String> tagNames(Set<Tag> tags) {
+        return tags.stream().map(Tag::getName).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,7 @@
+package com.epam.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super(cursor);
+    }
+}
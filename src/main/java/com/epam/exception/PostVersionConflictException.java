@@ -0,0 +1,7 @@
+package com.epam.exception;
+
+public class PostVersionConflictException extends RuntimeException {
+    public PostVersionConflictException(long id) {
+        super(String.valueOf(id));
+    }
+}
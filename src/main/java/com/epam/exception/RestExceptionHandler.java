@@ -4,6 +4,9 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,6 +26,34 @@ public class RestExceptionHandler {
         return ResponseEntity.unprocessableEntity().body(Map.of("errors", errors));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    private ResponseEntity<Map<String, List<String>>> handleInvalidCursorException(InvalidCursorException e) {
+        LOGGER.warn("Malformed pagination cursor '{}'", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("errors", List.of("Malformed pagination cursor")));
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    private ResponseEntity<Map<String, List<String>>> handleInvalidBatchException(InvalidBatchException e) {
+        LOGGER.warn("Rejected post batch: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("errors", List.of(e.getMessage())));
+    }
+
+    @ExceptionHandler(SearchIndexNotReadyException.class)
+    private ResponseEntity<Map<String, List<String>>> handleSearchIndexNotReadyException(SearchIndexNotReadyException e) {
+        LOGGER.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("errors", List.of(e.getMessage())));
+    }
+
+    // Raised for a stale If-Match up front, or by Hibernate when another update committed while this one ran
+    @ExceptionHandler({PostVersionConflictException.class, OptimisticLockingFailureException.class})
+    private ResponseEntity<Map<String, List<String>>> handleVersionConflict(RuntimeException e) {
+        LOGGER.warn("Post update conflicts with a newer version: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(Map.of("errors", List.of("Post was changed by another request, fetch it again and retry")));
+    }
+
     @ExceptionHandler(PostNotFoundException.class)
     private ResponseEntity<String> handlePostNotFoundException(PostNotFoundException e) {
         LOGGER.warn("Post with id '{}' wasn't found", e.getMessage());
@@ -0,0 +1,40 @@
+package com.epam.index;
+
+import com.epam.event.PostChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Component
+public class PostChangeCounter {
+    // Listeners that serve listing data must be up to date before a counter moves, so they run first
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong allPosts = new AtomicLong();
+    private final Map<String, AtomicLong> postsByTag = new ConcurrentHashMap<>();
+
+    @Order(ORDER)
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        Stream.concat(event.oldTags().stream(), event.newTags().stream())
+                .distinct()
+                .forEach(tag -> postsByTag.computeIfAbsent(tag, name -> new AtomicLong()).incrementAndGet());
+        allPosts.incrementAndGet();
+    }
+
+    public String versionOf(Set<String> tags) {
+        // Counters only grow, so the sum moves whenever a post with any of these tags changes
+        long version = tags.isEmpty()
+                ? allPosts.get()
+                : tags.stream().mapToLong(tag -> postsByTag.getOrDefault(tag, new AtomicLong()).get()).sum();
+
+        return epoch + "." + version;
+    }
+}
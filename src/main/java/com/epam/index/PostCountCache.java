@@ -0,0 +1,58 @@
+package com.epam.index;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class PostCountCache {
+    private static final long UNKNOWN = -1;
+    private final PostRepository postRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    @Autowired
+    public PostCountCache(PostRepository postRepository, PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        // A read-write transaction of its own, so the count comes from the primary even when asked for during a
+        // read-only one that a replica serves
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long get() {
+        long cached = count.get();
+        return cached != UNKNOWN ? cached : refresh();
+    }
+
+    // Creates and deletes that commit while the count runs end up counted twice or not at all, so the adjusted
+    // count is replaced by a fresh one from time to time instead of drifting for good
+    @Scheduled(fixedDelayString = "${blog.posts.count.refresh-interval:PT1M}",
+            initialDelayString = "${blog.posts.count.refresh-interval:PT1M}")
+    public long refresh() {
+        long counted = primaryTransaction.execute(status -> postRepository.count());
+        count.set(counted);
+
+        return counted;
+    }
+
+    @Order(PostChangeCounter.ORDER - 1)
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : current + 1);
+            case DELETED -> count.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : current - 1);
+            default -> {
+            }
+        }
+    }
+}
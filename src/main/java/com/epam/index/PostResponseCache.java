@@ -0,0 +1,89 @@
+package com.epam.index;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.model.Post;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class PostResponseCache {
+    public record SerializedPost(long version, byte[] json, byte[] gzip) {
+    }
+
+    private final Cache<Long, SerializedPost> responses;
+    private final ObjectWriter writer;
+    private final long gzipMinSize;
+
+    @Autowired
+    public PostResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${blog.posts.response-cache.maximum-size:1000}") long maximumSize,
+                             @Value("${blog.posts.response-cache.expire-after-write:PT1M}") Duration expireAfterWrite,
+                             @Value("${server.compression.min-response-size:2KB}") DataSize gzipMinSize) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.writer = objectMapper.writerFor(Post.class);
+        this.gzipMinSize = gzipMinSize.toBytes();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "postResponses");
+    }
+
+    public Optional<SerializedPost> getIfPresent(long id) {
+        return Optional.ofNullable(responses.getIfPresent(id));
+    }
+
+    // Loaded atomically per id, so an invalidation arriving mid-load waits for it and then drops the stale bytes
+    public SerializedPost get(long id, LongFunction<Post> loader) {
+        return responses.get(id, key -> serialize(loader.apply(key)));
+    }
+
+    @Order(PostChangeCounter.ORDER - 1)
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.type() != PostChangedEvent.Type.CREATED) {
+            invalidate(event.postId());
+        }
+    }
+
+    public void invalidate(long id) {
+        responses.invalidate(id);
+    }
+
+    private SerializedPost serialize(Post post) {
+        try {
+            byte[] json = writer.writeValueAsBytes(post);
+            // Bodies below the server's compression threshold are not worth a gzip copy
+            return new SerializedPost(post.getVersion(), json, json.length >= gzipMinSize ? gzip(json) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        }
+
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,230 @@
+package com.epam.index;
+
+import com.epam.dto.PostRow;
+import com.epam.event.PostChangedEvent;
+import com.epam.exception.SearchIndexNotReadyException;
+import com.epam.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+@Component
+public class PostSearchIndex {
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int TITLE_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private final PostRepository postRepository;
+    private final TaskExecutor taskExecutor;
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final List<PostChangedEvent> eventsDuringRebuild = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+    private boolean rebuilding;
+    private volatile boolean ready;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private record Document(int length, String[] terms) {
+    }
+
+    private record Hit(long postId, double score) {
+    }
+
+    @Autowired
+    public PostSearchIndex(PostRepository postRepository,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.postRepository = postRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long lastId = 0;
+            List<PostRow> rows;
+            do {
+                rows = postRepository.findRowsAfterId(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    rows.forEach(row -> add(row.id(), row.title(), row.content()));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!rows.isEmpty()) {
+                    lastId = rows.get(rows.size() - 1).id();
+                }
+            } while (rows.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            abortRebuild();
+            LOGGER.error("Search index rebuild failed, search stays unavailable", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            eventsDuringRebuild.forEach(this::apply);
+            eventsDuringRebuild.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOGGER.info("Search index rebuilt with {} posts and {} terms", documents.size(), postings.size());
+    }
+
+    @Order(PostChangeCounter.ORDER - 1)
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                eventsDuringRebuild.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, LongPredicate filter, long offset, int limit) {
+        if (!ready) {
+            throw new SearchIndexNotReadyException();
+        }
+
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            double averageLength = documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+            for (String term : queryTerms) {
+                Map<Long, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+
+                double idf = Math.log(1 + (documents.size() - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                termPostings.forEach((postId, frequency) -> {
+                    if (filter.test(postId)) {
+                        double norm = K1 * (1 - B + B * documents.get(postId).length() / averageLength);
+                        scores.merge(postId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new Hit(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::postId))
+                .skip(offset)
+                .limit(limit)
+                .map(Hit::postId)
+                .toList();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(NON_WORD.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            eventsDuringRebuild.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(PostChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.postId(), event.title(), event.content());
+            case DELETED -> remove(event.postId());
+            default -> {
+            }
+        }
+    }
+
+    private void add(long postId, String title, String content) {
+        // Replayed events may repeat a post the rebuild already loaded
+        remove(postId);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> titleTerms = tokenize(title);
+        List<String> contentTerms = tokenize(content);
+        titleTerms.forEach(term -> frequencies.merge(term, TITLE_WEIGHT, Integer::sum));
+        contentTerms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(postId, frequency));
+        int length = titleTerms.size() * TITLE_WEIGHT + contentTerms.size();
+        documents.put(postId, new Document(length, frequencies.keySet().toArray(String[]::new)));
+        totalLength += length;
+    }
+
+    private void remove(long postId) {
+        Document document = documents.remove(postId);
+        if (document == null) {
+            return;
+        }
+
+        for (String term : document.terms()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(postId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+}
@@ -0,0 +1,4 @@
+package com.epam.index;
+
+public record PostTagLink(long postId, long tagId, String tagName) {
+}
@@ -0,0 +1,50 @@
+package com.epam.index;
+
+import com.epam.config.CacheConfig;
+import com.epam.dto.PostView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Component
+public class TagFilterResultCache {
+    // The listing version moves with every change to a post having any of the tags, so a write only
+    // invalidates the filters on its own tags. Entries of older versions are never read again and age out
+    public record Key(Set<String> tags, long offset, int size, Sort sort, boolean summary, String version) {
+    }
+
+    private final Cache<Object, Object> results;
+    private final PostChangeCounter postChangeCounter;
+
+    @Autowired
+    public TagFilterResultCache(CacheManager regionCacheManager, PostChangeCounter postChangeCounter) {
+        this.results = regionCacheManager.getCache(CacheConfig.TAG_FILTER_REGION);
+        this.postChangeCounter = postChangeCounter;
+    }
+
+    // Taken before the posts are read, so a result is never stored under a newer version than it reflects
+    public Optional<Key> keyOf(Set<String> tags, Pageable pageRequest, boolean summary) {
+        if (pageRequest.isUnpaged()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Key(Set.copyOf(tags), pageRequest.getOffset(), pageRequest.getPageSize(),
+                pageRequest.getSort(), summary, postChangeCounter.versionOf(tags)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<PostView>> get(Key key) {
+        return Optional.ofNullable((List<PostView>) results.get(key));
+    }
+
+    public void put(Key key, List<PostView> posts) {
+        results.put(key, posts);
+    }
+}
@@ -0,0 +1,197 @@
+package com.epam.index;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.repository.PostRepository;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.annotation.Order;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class TagIndex {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private final PostRepository postRepository;
+    private final TaskExecutor taskExecutor;
+    private final Map<String, Roaring64Bitmap> postsByTag = new HashMap<>();
+    private final List<PostChangedEvent> eventsDuringRebuild = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+    private volatile boolean ready;
+    private static final Logger LOGGER = LoggerFactory.getLogger(TagIndex.class);
+
+    @Autowired
+    public TagIndex(PostRepository postRepository,
+                    @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.postRepository = postRepository;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            postsByTag.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long links = 0;
+        try {
+            long lastPostId = 0;
+            long lastTagId = 0;
+            List<PostTagLink> batch;
+            do {
+                batch = postRepository.findTagLinksAfter(lastPostId, lastTagId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    batch.forEach(link -> bitmapFor(link.tagName()).addLong(link.postId()));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    PostTagLink last = batch.get(batch.size() - 1);
+                    lastPostId = last.postId();
+                    lastTagId = last.tagId();
+                    links += batch.size();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            abortRebuild();
+            LOGGER.error("Tag index rebuild failed, tag filtering falls back to database queries", e);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Events are full before/after states, so replaying ones already covered by the batches is harmless
+            eventsDuringRebuild.forEach(this::apply);
+            eventsDuringRebuild.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOGGER.info("Tag index rebuilt with {} tags and {} post-tag links", postsByTag.size(), links);
+    }
+
+    @Order(PostChangeCounter.ORDER - 1)
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                eventsDuringRebuild.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Roaring64Bitmap> findPostIdsWithAllTags(Set<String> tags) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Roaring64Bitmap> bitmaps = new ArrayList<>(tags.size());
+            for (String tag : tags) {
+                Roaring64Bitmap posts = postsByTag.get(tag);
+                if (posts == null) {
+                    return Optional.of(new Roaring64Bitmap());
+                }
+                bitmaps.add(posts);
+            }
+            if (bitmaps.isEmpty()) {
+                return Optional.of(new Roaring64Bitmap());
+            }
+
+            bitmaps.sort(Comparator.comparingLong(Roaring64Bitmap::getLongCardinality));
+            Roaring64Bitmap result = bitmaps.get(0).clone();
+            bitmaps.subList(1, bitmaps.size()).forEach(result::and);
+
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Map<String, Long>> findPostCounts(Set<String> tags) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new HashMap<>(tags.size());
+            tags.forEach(tag -> {
+                Roaring64Bitmap posts = postsByTag.get(tag);
+                counts.put(tag, posts == null ? 0 : posts.getLongCardinality());
+            });
+
+            return Optional.of(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            eventsDuringRebuild.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(PostChangedEvent event) {
+        event.oldTags().stream()
+                .filter(tag -> !event.newTags().contains(tag))
+                .forEach(tag -> {
+                    Roaring64Bitmap posts = postsByTag.get(tag);
+                    if (posts != null) {
+                        posts.removeLong(event.postId());
+                        if (posts.isEmpty()) {
+                            postsByTag.remove(tag);
+                        }
+                    }
+                });
+        event.newTags().forEach(tag -> bitmapFor(tag).addLong(event.postId()));
+    }
+
+    private Roaring64Bitmap bitmapFor(String tag) {
+        return postsByTag.computeIfAbsent(tag, name -> new Roaring64Bitmap());
+    }
+}
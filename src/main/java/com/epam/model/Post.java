@@ -1,5 +1,6 @@
 package com.epam.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,18 +11,24 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "post")
 public class Post {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_id_seq")
+    @SequenceGenerator(name = "post_id_seq", sequenceName = "post_id_seq", initialValue = 1000, allocationSize = 50)
     @Hidden
     private long id;
 
@@ -33,7 +40,12 @@ public class Post {
     @NotBlank(message = "Post content cannot be empty")
     private String content;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private long version;
+
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "posts_tags",
             joinColumns = @JoinColumn(name = "post_id"),
@@ -41,6 +53,7 @@ public class Post {
     )
     @Valid
     @BatchSize(size = 10)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "post.tags")
     private Set<Tag> tags = new HashSet<>();
 
     public Post(long id, String title, String content, Set<Tag> tags) {
@@ -77,6 +90,14 @@ public class Post {
         this.content = content;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Set<Tag> getTags() {
         return tags;
     }
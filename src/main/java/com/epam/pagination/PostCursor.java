@@ -0,0 +1,64 @@
+package com.epam.pagination;
+
+import com.epam.dto.PostView;
+import com.epam.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+
+public record PostCursor(String property, Sort.Direction direction, long lastId, String lastValue) {
+    public static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "title");
+    private static final String SEPARATOR = ":";
+
+    public static Optional<PostCursor> after(PostView post, Sort sort) {
+        if (sort.isUnsorted()) {
+            return Optional.of(new PostCursor("id", Sort.Direction.ASC, post.id(), null));
+        }
+
+        if (sort.stream().count() != 1) {
+            return Optional.empty();
+        }
+
+        Sort.Order order = sort.iterator().next();
+        return switch (order.getProperty()) {
+            case "id" -> Optional.of(new PostCursor("id", order.getDirection(), post.id(), null));
+            case "title" -> Optional.of(new PostCursor("title", order.getDirection(), post.id(), post.title()));
+            default -> Optional.empty();
+        };
+    }
+
+    public static PostCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 4);
+            if (parts.length < 3 || !SORTABLE_PROPERTIES.contains(parts[0])) {
+                throw new InvalidCursorException(token);
+            }
+
+            String lastValue = parts.length == 4 ? parts[3] : null;
+            if (parts[0].equals("title") && lastValue == null) {
+                throw new InvalidCursorException(token);
+            }
+
+            return new PostCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.parseLong(parts[2]), lastValue);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, property, direction.name(), String.valueOf(lastId));
+        if (lastValue != null) {
+            raw = raw + SEPARATOR + lastValue;
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isSortedById() {
+        return property.equals("id");
+    }
+}
@@ -1,24 +1,72 @@
 package com.epam.repository;
 
+import com.epam.dto.PostRow;
+import com.epam.dto.PostTagRow;
+import com.epam.index.PostTagLink;
 import com.epam.model.Post;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostRepositoryCustom {
+    @Query("SELECT p.id FROM Post p")
+    Slice<Long> findIds(Pageable pageable);
+
     @Query("""
-           SELECT p FROM Post p JOIN p.tags t
+           SELECT p.id FROM Post p JOIN p.tags t
            WHERE t.name IN :tagNames
            GROUP BY p
            HAVING COUNT(DISTINCT t) = :tagCount
            """)
-    Page<Post> findByAllTags(@Param("tagNames") Set<String> tagNames,
-                             @Param("tagCount") int tagCount,
-                             Pageable pageable);
+    Slice<Long> findIdsByAllTags(@Param("tagNames") Set<String> tagNames,
+                                 @Param("tagCount") int tagCount,
+                                 Pageable pageable);
+
+    @Query("SELECT new com.epam.dto.PostRow(p.id, p.title, p.content) FROM Post p WHERE p.id IN :ids")
+    List<PostRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+           SELECT new com.epam.dto.PostRow(p.id, p.title, SUBSTRING(p.content, 1, :length))
+           FROM Post p WHERE p.id IN :ids
+           """)
+    List<PostRow> findSummaryRowsByIdIn(@Param("ids") Collection<Long> ids, @Param("length") int length);
+
+    @Query("SELECT new com.epam.dto.PostTagRow(p.id, t.id, t.name) FROM Post p JOIN p.tags t WHERE p.id IN :ids")
+    List<PostTagRow> findTagRowsByPostIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.epam.dto.PostRow(p.id, p.title, p.content) FROM Post p WHERE p.id > :lastId ORDER BY p.id")
+    List<PostRow> findRowsAfterId(@Param("lastId") long lastId, Pageable pageable);
+
+    @Query("SELECT p.version FROM Post p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    @EntityGraph(attributePaths = "tags")
+    Optional<Post> findWithTagsById(long id);
+
+    @Query("""
+           SELECT COUNT(p) FROM Post p WHERE p.id IN (
+               SELECT tp.id FROM Post tp JOIN tp.tags t
+               WHERE t.name IN :tagNames
+               GROUP BY tp.id
+               HAVING COUNT(DISTINCT t) = :tagCount)
+           """)
+    long countByAllTags(@Param("tagNames") Set<String> tagNames, @Param("tagCount") int tagCount);
+
+    @Query("""
+           SELECT new com.epam.index.PostTagLink(p.id, t.id, t.name) FROM Post p JOIN p.tags t
+           WHERE p.id > :lastPostId OR (p.id = :lastPostId AND t.id > :lastTagId)
+           ORDER BY p.id, t.id
+           """)
+    List<PostTagLink> findTagLinksAfter(@Param("lastPostId") long lastPostId, @Param("lastTagId") long lastTagId,
+                                        Pageable pageable);
 }
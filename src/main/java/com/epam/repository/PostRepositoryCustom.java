@@ -0,0 +1,19 @@
+package com.epam.repository;
+
+import com.epam.model.Post;
+import com.epam.pagination.PostCursor;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface PostRepositoryCustom {
+    List<Long> findIdsByRarestTag(String rarestTag, List<String> otherTags, Pageable pageable);
+
+    List<Long> findIdsAfter(Set<String> tagNames, PostCursor cursor, int limit);
+
+    Stream<Post> streamAfterId(Set<String> tagNames, long sinceId, int fetchSize);
+
+    void raiseVersion(long id, long version);
+}
@@ -0,0 +1,173 @@
+package com.epam.repository;
+
+import com.epam.model.Post;
+import com.epam.model.Tag;
+import com.epam.pagination.PostCursor;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+    private static final String RAISE_VERSION = "UPDATE post SET version = ? WHERE id = ? AND version < ?";
+    private final JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public PostRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> findIdsByRarestTag(String rarestTag, List<String> otherTags, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Post> post = query.from(Post.class);
+        Join<Post, Tag> tag = post.join("tags");
+        List<Predicate> predicates = new ArrayList<>();
+
+        // Only the rare tag's posts are joined, every other tag is probed per candidate post
+        predicates.add(cb.equal(tag.get("name"), rarestTag));
+        for (String otherTag : otherTags) {
+            Subquery<Integer> hasTag = query.subquery(Integer.class);
+            Join<Post, Tag> otherTagJoin = hasTag.correlate(post).join("tags");
+            hasTag.select(cb.literal(1)).where(cb.equal(otherTagJoin.get("name"), otherTag));
+            predicates.add(cb.exists(hasTag));
+        }
+
+        query.select(post.get("id"))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), post, cb));
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<Long> findIdsAfter(Set<String> tagNames, PostCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Post> post = query.from(Post.class);
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (!tagNames.isEmpty()) {
+            Join<Post, Tag> tag = post.join("tags");
+            predicates.add(tag.get("name").in(tagNames));
+            query.groupBy(post);
+            query.having(cb.equal(cb.countDistinct(tag), tagNames.size()));
+        }
+
+        predicates.add(seekPredicate(cb, post, cursor));
+        query.select(post.get("id"))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orderBy(cb, post, cursor));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<Post> streamAfterId(Set<String> tagNames, long sinceId, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Post> query = cb.createQuery(Post.class);
+        Root<Post> post = query.from(Post.class);
+        List<Predicate> predicates = new ArrayList<>();
+
+        predicates.add(cb.greaterThan(post.get("id"), sinceId));
+        if (!tagNames.isEmpty()) {
+            Subquery<Long> taggedIds = query.subquery(Long.class);
+            Root<Post> taggedPost = taggedIds.from(Post.class);
+            Join<Post, Tag> tag = taggedPost.join("tags");
+            taggedIds.select(taggedPost.get("id"))
+                    .where(tag.get("name").in(tagNames))
+                    .groupBy(taggedPost.get("id"))
+                    .having(cb.equal(cb.countDistinct(tag), tagNames.size()));
+            predicates.add(post.get("id").in(taggedIds));
+        }
+
+        query.select(post)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(post.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Plain SQL, a Hibernate bulk update would evict every cached post instead of this one. Its cached copy still
+    // has the old version and goes once the transaction commits
+    @Override
+    public void raiseVersion(long id, long version) {
+        if (jdbcTemplate.update(RAISE_VERSION, version, id, version) == 0) {
+            return;
+        }
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(Post.class, id);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(Post.class, id);
+            }
+        });
+    }
+
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<Post> post, PostCursor cursor) {
+        boolean ascending = cursor.direction() == Sort.Direction.ASC;
+        Path<Long> id = post.get("id");
+        Predicate afterId = ascending ? cb.greaterThan(id, cursor.lastId()) : cb.lessThan(id, cursor.lastId());
+
+        if (cursor.isSortedById()) {
+            return afterId;
+        }
+
+        Path<String> value = post.get(cursor.property());
+        Predicate afterValue = ascending
+                ? cb.greaterThan(value, cursor.lastValue())
+                : cb.lessThan(value, cursor.lastValue());
+
+        return cb.or(afterValue, cb.and(cb.equal(value, cursor.lastValue()), afterId));
+    }
+
+    private List<Order> orderBy(CriteriaBuilder cb, Root<Post> post, PostCursor cursor) {
+        boolean ascending = cursor.direction() == Sort.Direction.ASC;
+        List<Order> orders = new ArrayList<>();
+
+        if (!cursor.isSortedById()) {
+            orders.add(ascending ? cb.asc(post.get(cursor.property())) : cb.desc(post.get(cursor.property())));
+        }
+        orders.add(ascending ? cb.asc(post.get("id")) : cb.desc(post.get("id")));
+
+        return orders;
+    }
+}
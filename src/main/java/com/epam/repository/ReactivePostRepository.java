@@ -0,0 +1,64 @@
+package com.epam.repository;
+
+import com.epam.dto.PostWithTagRow;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+@Repository
+public class ReactivePostRepository {
+    // Posts are paged before joining their tags, rows of one post stay adjacent so they can be grouped while streaming
+    private static final String SELECT_WITH_TAGS = """
+            SELECT p.id, p.title, p.content, t.id AS tag_id, t.name AS tag_name
+            FROM (%s) p
+            LEFT JOIN posts_tags pt ON pt.post_id = p.id
+            LEFT JOIN tag t ON t.id = pt.tag_id
+            ORDER BY p.id, t.name""";
+    private static final String PAGE = "SELECT id, title, content FROM post ORDER BY id LIMIT :limit OFFSET :offset";
+    private static final String PAGE_WITH_ALL_TAGS = """
+            SELECT id, title, content FROM post WHERE id IN (
+                SELECT pt.post_id FROM posts_tags pt JOIN tag t ON t.id = pt.tag_id
+                WHERE t.name IN (:tags) GROUP BY pt.post_id HAVING COUNT(*) = :tagCount)
+            ORDER BY id LIMIT :limit OFFSET :offset""";
+    private static final String BY_ID = "SELECT id, title, content FROM post WHERE id = :id";
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactivePostRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<PostWithTagRow> findRows(long offset, int limit) {
+        return databaseClient.sql(SELECT_WITH_TAGS.formatted(PAGE))
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactivePostRepository::toRow)
+                .all();
+    }
+
+    public Flux<PostWithTagRow> findRowsByAllTags(Set<String> tagNames, long offset, int limit) {
+        return databaseClient.sql(SELECT_WITH_TAGS.formatted(PAGE_WITH_ALL_TAGS))
+                .bind("tags", tagNames)
+                .bind("tagCount", tagNames.size())
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactivePostRepository::toRow)
+                .all();
+    }
+
+    public Flux<PostWithTagRow> findRowsById(long id) {
+        return databaseClient.sql(SELECT_WITH_TAGS.formatted(BY_ID))
+                .bind("id", id)
+                .map(ReactivePostRepository::toRow)
+                .all();
+    }
+
+    private static PostWithTagRow toRow(Readable row) {
+        return new PostWithTagRow(row.get("id", Long.class), row.get("title", String.class),
+                row.get("content", String.class), row.get("tag_id", Long.class), row.get("tag_name", String.class));
+    }
+}
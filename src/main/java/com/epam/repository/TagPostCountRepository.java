@@ -0,0 +1,136 @@
+package com.epam.repository;
+
+import com.epam.dto.TagPostCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+@Repository
+public class TagPostCountRepository {
+    // Each tag's count is spread over this many rows, so concurrent writes to a popular tag rarely wait on one row lock
+    public static final int STRIPES = 16;
+    private static final String ADD_TO_STRIPE = """
+            UPDATE tag_post_count SET post_count = post_count + ? WHERE tag_id = ? AND stripe = ?""";
+    private static final String INSERT_STRIPE = """
+            INSERT INTO tag_post_count (tag_id, stripe, post_count)
+            SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM tag_post_count c WHERE c.tag_id = ? AND c.stripe = ?)""";
+    private static final String FIND_TOP = """
+            SELECT t.id, t.name, SUM(c.post_count) AS posts FROM tag_post_count c JOIN tag t ON t.id = c.tag_id
+            GROUP BY t.id, t.name HAVING SUM(c.post_count) > 0
+            ORDER BY posts DESC, t.name LIMIT ?""";
+    private static final String FIND_COUNTS = """
+            SELECT t.name, COALESCE(SUM(c.post_count), 0) AS posts FROM tag t
+            LEFT JOIN tag_post_count c ON c.tag_id = t.id
+            WHERE t.name IN (:names) GROUP BY t.name""";
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    public TagPostCountRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    public void createStripes(List<Long> tagIds) {
+        List<Integer> stripes = IntStream.range(0, STRIPES).boxed().toList();
+        List<long[]> rows = tagIds.stream()
+                .flatMap(tagId -> stripes.stream().map(stripe -> new long[]{tagId, stripe}))
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_STRIPE, rows, rows.size(), (statement, row) -> setStripe(statement, row[0], (int) row[1], 0));
+    }
+
+    // Rows are updated in tag id order, so two transactions touching the same tags cannot deadlock
+    public void add(SortedMap<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        int stripe = ThreadLocalRandom.current().nextInt(STRIPES);
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(deltas.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(ADD_TO_STRIPE, entries, entries.size(), (statement, entry) -> {
+            statement.setInt(1, entry.getValue());
+            statement.setLong(2, entry.getKey());
+            statement.setInt(3, stripe);
+        })[0];
+
+        // Stripes are created with the tag and by the data scripts, only rows added by hand can miss some of them
+        List<Map.Entry<Long, Integer>> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(entries.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        try {
+            insertStripes(missing, stripe);
+        } catch (DuplicateKeyException e) {
+            // A concurrent transaction created the same stripes first, they can be added to now
+            jdbcTemplate.batchUpdate(ADD_TO_STRIPE, missing, missing.size(), (statement, entry) -> {
+                statement.setInt(1, entry.getValue());
+                statement.setLong(2, entry.getKey());
+                statement.setInt(3, stripe);
+            });
+        }
+    }
+
+    public List<TagPostCount> findTop(int limit) {
+        return jdbcTemplate.query(FIND_TOP,
+                (rs, rowNum) -> new TagPostCount(rs.getLong("id"), rs.getString("name"), rs.getLong("posts")), limit);
+    }
+
+    // Unknown names are left out of the result
+    public Map<String, Long> findPostCounts(Collection<String> names) {
+        Map<String, Long> counts = new HashMap<>(names.size());
+        namedParameterJdbcTemplate.query(FIND_COUNTS, Map.of("names", names),
+                (RowCallbackHandler) rs -> counts.put(rs.getString("name"), rs.getLong("posts")));
+
+        return counts;
+    }
+
+    private void insertStripes(List<Map.Entry<Long, Integer>> entries, int stripe) {
+        // The savepoint keeps a unique violation from aborting the surrounding transaction
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_STRIPE)) {
+                for (Map.Entry<Long, Integer> entry : entries) {
+                    setStripe(statement, entry.getKey(), stripe, entry.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+
+            return null;
+        });
+    }
+
+    private static void setStripe(PreparedStatement statement, long tagId, int stripe, int postCount) throws SQLException {
+        statement.setLong(1, tagId);
+        statement.setInt(2, stripe);
+        statement.setInt(3, postCount);
+        statement.setLong(4, tagId);
+        statement.setInt(5, stripe);
+    }
+}
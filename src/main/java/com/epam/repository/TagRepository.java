@@ -3,8 +3,9 @@ package com.epam.repository;
 import com.epam.model.Tag;
 import org.springframework.data.repository.CrudRepository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 public interface TagRepository extends CrudRepository<Tag, Long> {
-    Optional<Tag> findByName(String name);
+    List<Tag> findByNameIn(Collection<String> names);
 }
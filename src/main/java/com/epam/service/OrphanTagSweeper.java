@@ -0,0 +1,117 @@
+package com.epam.service;
+
+import com.epam.dto.TagView;
+import com.epam.model.Tag;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class OrphanTagSweeper {
+    // The post counters only cost a few rows per tag, unlike scanning posts_tags by tag
+    private static final String FIND_ORPHANS = """
+            SELECT t.id, t.name FROM tag t
+            WHERE COALESCE((SELECT SUM(c.post_count) FROM tag_post_count c WHERE c.tag_id = t.id), 0) = 0
+            ORDER BY t.id LIMIT :limit""";
+    // The links themselves decide in the delete, a post may have picked the tag up again since it was found
+    private static final String DELETE_ORPHANS = """
+            DELETE FROM tag t
+            WHERE t.id IN (:ids) AND NOT EXISTS (SELECT 1 FROM posts_tags pt WHERE pt.tag_id = t.id)""";
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrphanTagSweeper.class);
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> tagIdCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Counter tagsDeleted;
+    private final Clock clock;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final int maxPerRun;
+    private final Map<Long, Instant> orphanedSince = new HashMap<>();
+
+    @Autowired
+    public OrphanTagSweeper(NamedParameterJdbcTemplate jdbcTemplate, Cache<String, Long> tagIdCache,
+                            EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry, Clock clock,
+                            @Value("${blog.tags.sweep.grace-period:PT10M}") Duration gracePeriod,
+                            @Value("${blog.tags.sweep.batch-size:500}") int batchSize,
+                            @Value("${blog.tags.sweep.max-per-run:10000}") int maxPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tagIdCache = tagIdCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.tagsDeleted = Counter.builder("blog.tags.deleted").register(meterRegistry);
+        this.clock = clock;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.maxPerRun = maxPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.tags.sweep.interval:PT5M}",
+            initialDelayString = "${blog.tags.sweep.interval:PT5M}")
+    public synchronized int sweep() {
+        Instant now = clock.instant();
+        List<TagView> orphans = jdbcTemplate.query(FIND_ORPHANS, Map.of("limit", maxPerRun),
+                (rs, rowNum) -> new TagView(rs.getLong("id"), rs.getString("name")));
+
+        // Only tags that stayed orphaned for the whole grace period are deleted, so a name that is briefly
+        // unused between a post losing it and another one getting it keeps its row and cached id
+        Set<Long> orphanIds = orphans.stream().map(TagView::id).collect(Collectors.toSet());
+        orphanedSince.keySet().retainAll(orphanIds);
+        List<TagView> expired = orphans.stream()
+                .filter(tag -> !orphanedSince.computeIfAbsent(tag.id(), id -> now).plus(gracePeriod).isAfter(now))
+                .toList();
+
+        int deleted = 0;
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            deleted += deleteBatch(expired.subList(from, Math.min(from + batchSize, expired.size())));
+        }
+
+        if (deleted > 0) {
+            LOGGER.info("Deleted {} orphaned tags", deleted);
+        }
+        return deleted;
+    }
+
+    private int deleteBatch(List<TagView> tags) {
+        List<Long> ids = tags.stream().map(TagView::id).toList();
+        // Evicted before and after the delete, a lookup while it runs still finds the rows
+        evict(tags);
+        int deleted;
+        try {
+            deleted = jdbcTemplate.update(DELETE_ORPHANS, Map.of("ids", ids));
+        } catch (DataAccessException e) {
+            // A concurrent write attached one of these tags, the foreign key refuses the delete
+            LOGGER.warn("Could not delete orphaned tags {}, retrying on the next sweep", ids, e);
+            return 0;
+        }
+
+        evict(tags);
+        tags.forEach(tag -> orphanedSince.remove(tag.id()));
+        tagsDeleted.increment(deleted);
+
+        return deleted;
+    }
+
+    private void evict(List<TagView> tags) {
+        tags.forEach(tag -> {
+            tagIdCache.invalidate(tag.name());
+            entityManagerFactory.getCache().evict(Tag.class, tag.id());
+        });
+    }
+}
@@ -0,0 +1,150 @@
+package com.epam.service;
+
+import com.epam.dto.PostBatchItem;
+import com.epam.dto.PostBatchReport;
+import com.epam.exception.InvalidBatchException;
+import com.epam.model.Post;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+@Service
+public class PostBatchService {
+    private final PostService postService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxItems;
+    @PersistenceContext
+    private EntityManager entityManager;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostBatchService.class);
+
+    @Autowired
+    public PostBatchService(PostService postService, ObjectMapper objectMapper, Validator validator,
+                            @Value("${blog.posts.batch.chunk-size:500}") int chunkSize,
+                            @Value("${blog.posts.batch.max-items:10000}") int maxItems) {
+        this.postService = postService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    public PostBatchReport importPosts(InputStream body) throws IOException {
+        List<PostBatchItem> items = new ArrayList<>();
+        List<Post> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (startToken(parser) != JsonToken.START_ARRAY) {
+                throw new InvalidBatchException("Request body must be a JSON array of posts");
+            }
+
+            int index = 0;
+            try {
+                for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+                    if (token == null) {
+                        items.add(PostBatchItem.failed(index, List.of("Unexpected end of JSON array")));
+                        break;
+                    }
+                    if (index >= maxItems) {
+                        items.add(PostBatchItem.failed(index, List.of("Batch is limited to " + maxItems + " posts")));
+                        break;
+                    }
+
+                    JsonNode node = objectMapper.readTree(parser);
+                    List<String> errors = new ArrayList<>();
+                    Post post = readPost(node, errors);
+                    if (!errors.isEmpty()) {
+                        items.add(PostBatchItem.failed(index, errors));
+                        continue;
+                    }
+
+                    chunk.add(post);
+                    chunkIndexes.add(index);
+                    if (chunk.size() == chunkSize) {
+                        saveChunk(chunk, chunkIndexes, items);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Syntax errors leave the parser in an unknown position, so nothing after this item can be read
+                items.add(PostBatchItem.failed(index, List.of("Malformed JSON: " + e.getOriginalMessage())));
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, chunkIndexes, items);
+        }
+        items.sort(Comparator.comparingInt(PostBatchItem::index));
+
+        PostBatchReport report = PostBatchReport.of(items);
+        LOGGER.info("Batch import finished with {} posts created and {} failed", report.created(), report.failed());
+
+        return report;
+    }
+
+    private JsonToken startToken(JsonParser parser) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private Post readPost(JsonNode node, List<String> errors) {
+        Post post;
+        try {
+            post = objectMapper.treeToValue(node, Post.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            errors.add("Malformed post");
+            return null;
+        }
+        if (post == null) {
+            errors.add("Malformed post");
+            return null;
+        }
+
+        post.setId(0);
+        if (post.getTags() == null) {
+            post.setTags(new HashSet<>());
+        }
+        validator.validate(post).stream().map(ConstraintViolation::getMessage).forEach(errors::add);
+
+        return post;
+    }
+
+    private void saveChunk(List<Post> chunk, List<Integer> chunkIndexes, List<PostBatchItem> items) {
+        try {
+            List<Post> createdPosts = postService.createAll(chunk);
+            for (int i = 0; i < createdPosts.size(); i++) {
+                items.add(PostBatchItem.created(chunkIndexes.get(i), createdPosts.get(i).getId()));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Batch chunk of {} posts could not be saved", chunk.size(), e);
+            chunkIndexes.forEach(index -> items.add(PostBatchItem.failed(index, List.of("Chunk could not be saved"))));
+        } finally {
+            // With open-in-view the request keeps one persistence context, so drop the saved posts from it
+            entityManager.clear();
+            chunk.clear();
+            chunkIndexes.clear();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.epam.service;
+
+import com.epam.dto.PostTagRow;
+import com.epam.dto.PostView;
+import com.epam.dto.TagView;
+import com.epam.model.Post;
+import com.epam.repository.PostRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class PostExportService {
+    private final PostRepository postRepository;
+    private final ObjectWriter writer;
+    private final int fetchSize;
+    @PersistenceContext
+    private EntityManager entityManager;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostExportService.class);
+
+    @Autowired
+    public PostExportService(PostRepository postRepository, ObjectMapper objectMapper,
+                             @Value("${blog.posts.export.fetch-size:500}") int fetchSize) {
+        this.postRepository = postRepository;
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Set<String> tags, long sinceId, OutputStream output) throws IOException {
+        long exported = 0;
+        List<Post> chunk = new ArrayList<>(fetchSize);
+        // An export reads every post once, putting them into the second-level cache would only push out hot ones.
+        // Set on the session rather than the query, whose cache mode stops applying once the stream is handed out
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+
+        try (JsonGenerator generator = writer.createGenerator(output).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<Post> posts = postRepository.streamAfterId(tags, sinceId, fetchSize)) {
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                chunk.add(post);
+                if (chunk.size() == fetchSize) {
+                    exported += writeChunk(chunk, generator);
+                }
+            }
+            exported += writeChunk(chunk, generator);
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+
+        LOGGER.info("Exported {} posts after id '{}'", exported, sinceId);
+        return exported;
+    }
+
+    private int writeChunk(List<Post> chunk, JsonGenerator generator) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = chunk.stream().map(Post::getId).toList();
+        Map<Long, List<TagView>> tagsByPostId = postRepository.findTagRowsByPostIdIn(ids).stream()
+                .sorted(Comparator.comparing(PostTagRow::tagName))
+                .collect(Collectors.groupingBy(PostTagRow::postId,
+                        Collectors.mapping(row -> new TagView(row.tagId(), row.tagName()), Collectors.toList())));
+
+        for (Post post : chunk) {
+            PostView view = new PostView(post.getId(), post.getTitle(), post.getContent(),
+                    tagsByPostId.getOrDefault(post.getId(), List.of()));
+            writer.writeValue(generator, view);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+
+        int written = chunk.size();
+        // Posts already written are never touched again, keep the persistence context from growing with the table
+        chunk.forEach(entityManager::detach);
+        chunk.clear();
+
+        return written;
+    }
+}
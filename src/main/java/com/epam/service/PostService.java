@@ -1,61 +1,282 @@
 package com.epam.service;
 
+import com.epam.dto.PostRow;
+import com.epam.dto.PostTagRow;
+import com.epam.dto.PostView;
+import com.epam.dto.TagView;
+import com.epam.event.PostChangedEvent;
 import com.epam.exception.PostNotFoundException;
+import com.epam.exception.PostVersionConflictException;
+import com.epam.index.PostChangeCounter;
+import com.epam.index.PostCountCache;
+import com.epam.index.PostSearchIndex;
+import com.epam.index.TagFilterResultCache;
+import com.epam.index.TagIndex;
 import com.epam.model.Post;
 import com.epam.model.Tag;
+import com.epam.pagination.PostCursor;
 import com.epam.repository.PostRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "blog.service.operation", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class PostService {
     private final PostRepository postRepository;
     private final TagService tagService;
+    private final TagIndex tagIndex;
+    private final PostCountCache postCountCache;
+    private final PostChangeCounter postChangeCounter;
+    private final PostSearchIndex postSearchIndex;
+    private final TagFilterPlanner tagFilterPlanner;
+    private final TagFilterResultCache tagFilterResultCache;
+    private final PostTagUpdateBuffer tagUpdateBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private static final int SUMMARY_LENGTH = 200;
+    // PostgreSQL and H2 states of an insert whose foreign key points at a missing row
+    private static final Set<String> MISSING_PARENT_STATES = Set.of("23503", "23506");
     private static final Logger LOGGER = LoggerFactory.getLogger(PostService.class);
 
     @Autowired
-    public PostService(PostRepository postRepository, TagService tagService) {
+    public PostService(PostRepository postRepository, TagService tagService, TagIndex tagIndex,
+                       PostCountCache postCountCache, PostChangeCounter postChangeCounter,
+                       PostSearchIndex postSearchIndex, TagFilterPlanner tagFilterPlanner,
+                       TagFilterResultCache tagFilterResultCache, PostTagUpdateBuffer tagUpdateBuffer,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
         this.postRepository = postRepository;
         this.tagService = tagService;
+        this.tagIndex = tagIndex;
+        this.postCountCache = postCountCache;
+        this.postChangeCounter = postChangeCounter;
+        this.postSearchIndex = postSearchIndex;
+        this.tagFilterPlanner = tagFilterPlanner;
+        this.tagFilterResultCache = tagFilterResultCache;
+        this.tagUpdateBuffer = tagUpdateBuffer;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public List<Post> findAll(Pageable pageRequest) {
-        return postRepository.findAll(pageRequest).getContent();
+    // Listings are read-write, so the primary answers them: their ETag counts the primary's commits
+    @Transactional
+    public List<PostView> findAll(Pageable pageRequest, boolean summary) {
+        return findViewsInOrder(postRepository.findIds(pageRequest).getContent(), summary);
     }
 
-    public List<Post> findByAllTags(Set<String> tags, Pageable pageRequest) {
-        return postRepository.findByAllTags(tags, tags.size(), pageRequest).getContent();
+    @Transactional
+    public List<PostView> findByAllTags(Set<String> tags, Pageable pageRequest, boolean summary) {
+        Optional<TagFilterResultCache.Key> key = tagFilterResultCache.keyOf(tags, pageRequest, summary);
+        Optional<List<PostView>> cached = key.flatMap(tagFilterResultCache::get);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        List<PostView> posts = findByAllTagsUncached(tags, pageRequest, summary);
+        key.ifPresent(presentKey -> tagFilterResultCache.put(presentKey, posts));
+
+        return posts;
     }
 
-    public Post findById(long id) {
-        return postRepository.findById(id).orElseThrow(() -> new PostNotFoundException(id));
+    private List<PostView> findByAllTagsUncached(Set<String> tags, Pageable pageRequest, boolean summary) {
+        TagFilterPlanner.Plan plan = tagFilterPlanner.plan(tags, isSortedById(pageRequest.getSort()));
+        switch (plan.strategy()) {
+            case EMPTY -> {
+                return List.of();
+            }
+            case INDEX -> {
+                // The index may have started a rebuild since the plan was made, the query below still answers then
+                Optional<Roaring64Bitmap> postIds = tagIndex.findPostIdsWithAllTags(tags);
+                if (postIds.isPresent()) {
+                    return findViewsInOrder(findPageOfIds(postIds.get(), pageRequest), summary);
+                }
+            }
+            case RAREST_FIRST -> {
+                List<String> byPostCount = plan.tags();
+                return findViewsInOrder(postRepository.findIdsByRarestTag(
+                        byPostCount.get(0), byPostCount.subList(1, byPostCount.size()), pageRequest), summary);
+            }
+            default -> {
+            }
+        }
+
+        return findViewsInOrder(postRepository.findIdsByAllTags(tags, tags.size(), pageRequest).getContent(), summary);
     }
 
     @Transactional
-    public Post create(Post post) {
-        Set<Tag> verifiedTags = post.getTags().stream().map(tagService::enrichTagWithId).collect(Collectors.toSet());
-        post.setTags(verifiedTags);
+    public List<PostView> findAfter(Set<String> tags, PostCursor cursor, int limit, boolean summary) {
+        if (!tags.isEmpty() && cursor.isSortedById()) {
+            Optional<Roaring64Bitmap> postIds = tagIndex.findPostIdsWithAllTags(tags);
+            if (postIds.isPresent()) {
+                return findViewsInOrder(takeIdsAfter(postIds.get(), cursor, limit), summary);
+            }
+        }
+
+        return findViewsInOrder(postRepository.findIdsAfter(tags, cursor, limit), summary);
+    }
 
-        Post createdPost = postRepository.save(post);
-        LOGGER.info("Saved new post with id '{}' and title '{}'", createdPost.getId(), createdPost.getTitle());
+    @Transactional(readOnly = true)
+    public List<PostView> search(String query, Set<String> tags, Pageable pageRequest, boolean summary) {
+        LongPredicate filter = id -> true;
+        if (!tags.isEmpty()) {
+            Roaring64Bitmap postIds = tagIndex.findPostIdsWithAllTags(tags).orElseGet(() -> Roaring64Bitmap.bitmapOf(
+                    postRepository.findIdsByAllTags(tags, tags.size(), Pageable.unpaged()).stream()
+                            .mapToLong(Long::longValue)
+                            .toArray()));
+            filter = postIds::contains;
+        }
+
+        long offset = pageRequest.isPaged() ? pageRequest.getOffset() : 0;
+        int limit = pageRequest.isPaged() ? pageRequest.getPageSize() : Integer.MAX_VALUE;
 
-        return createdPost;
+        return findViewsInOrder(postSearchIndex.search(query, filter, offset, limit), summary);
     }
 
     @Transactional
-    public Post updateTags(long id, Set<Tag> tags) {
+    public long count(Set<String> tags) {
+        if (tags.isEmpty()) {
+            return postCountCache.get();
+        }
+
+        return tagIndex.findPostIdsWithAllTags(tags)
+                .map(Roaring64Bitmap::getLongCardinality)
+                .orElseGet(() -> postRepository.countByAllTags(tags, tags.size()));
+    }
+
+    public long findVersion(long id) {
+        Optional<Post> buffered = tagUpdateBuffer.pending(id);
+        if (buffered.isPresent()) {
+            return buffered.get().getVersion();
+        }
+
+        return postRepository.findVersionById(id).orElseThrow(() -> new PostNotFoundException(id));
+    }
+
+    public String listingVersion(Set<String> tags) {
+        return postChangeCounter.versionOf(tags);
+    }
+
+    // Read-write, so the primary answers. The post goes into the response cache and the second-level cache, which
+    // would keep a lagging replica's copy long after the replica caught up
+    @Transactional
+    public Post findById(long id) {
+        // Tags that are still buffered have not reached the database, the caller sees them anyway
+        Optional<Post> buffered = tagUpdateBuffer.pending(id);
+        if (buffered.isPresent()) {
+            return buffered.get();
+        }
+
+        // Loaded by id rather than by query, so the post and its tags can come from the second-level cache
         Post post = postRepository.findById(id).orElseThrow(() -> new PostNotFoundException(id));
-        Set<Tag> oldTags = post.getTags();
+        Hibernate.initialize(post.getTags());
+
+        return post;
+    }
+
+    public Post create(Post post) {
+        return linkingTags(post.getTags(), () -> {
+            // A retry gets the post back with the id its rolled back insert was given
+            post.setId(0);
+            Set<Tag> verifiedTags = tagService.resolveTags(post.getTags());
+            post.setTags(verifiedTags);
+
+            Post createdPost = postRepository.save(post);
+            tagService.countPosts(Set.of(), verifiedTags);
+            eventPublisher.publishEvent(PostChangedEvent.created(createdPost));
+            LOGGER.info("Saved new post with id '{}' and title '{}'", createdPost.getId(), createdPost.getTitle());
+
+            return createdPost;
+        });
+    }
 
-        Set<Tag> verifiedTags = tags.stream().map(tagService::enrichTagWithId).collect(Collectors.toSet());
+    public List<Post> createAll(List<Post> posts) {
+        Set<Tag> requestedTags = posts.stream().flatMap(post -> post.getTags().stream()).collect(Collectors.toSet());
+
+        return linkingTags(requestedTags, () -> {
+            Map<String, Tag> tagsByName = tagService.resolveTags(requestedTags).stream()
+                    .collect(Collectors.toMap(Tag::getName, Function.identity()));
+            posts.forEach(post -> {
+                post.setId(0);
+                post.setTags(post.getTags().stream()
+                        .map(tag -> tagsByName.get(TagService.normalizeName(tag.getName())))
+                        .collect(Collectors.toSet()));
+            });
+
+            // Sequence ids are assigned up front, so these inserts and their posts_tags rows are flushed in JDBC batches
+            List<Post> createdPosts = postRepository.saveAll(posts);
+            postRepository.flush();
+            tagService.countPosts(List.of(), createdPosts.stream().flatMap(post -> post.getTags().stream()).toList());
+            createdPosts.forEach(post -> eventPublisher.publishEvent(PostChangedEvent.created(post)));
+            LOGGER.info("Saved batch of {} new posts", createdPosts.size());
+
+            return createdPosts;
+        });
+    }
+
+    public Post updateTags(long id, Set<Tag> tags) {
+        return updateTags(id, tags, OptionalLong.empty());
+    }
+
+    public Post updateTags(long id, Set<Tag> tags, OptionalLong expectedVersion) {
+        if (tagUpdateBuffer.isEnabled()) {
+            return bufferTags(id, tags, expectedVersion);
+        }
+
+        return applyTags(id, tags, expectedVersion);
+    }
+
+    public Post applyTags(long id, Set<Tag> tags, OptionalLong expectedVersion) {
+        return linkingTags(tags, () -> writeTags(id, tags, expectedVersion));
+    }
+
+    // One write for all updates the buffer took, each of which its callers saw as a version of its own. The post
+    // ends up with the last of them, else a version handed out for buffered tags would come back with other ones
+    public Post applyBufferedTags(long id, Set<Tag> tags, long version) {
+        return linkingTags(tags, () -> {
+            postRepository.raiseVersion(id, version - 1);
+            Post post = writeTags(id, tags, OptionalLong.empty());
+            if (post.getVersion() < version) {
+                postRepository.raiseVersion(id, version);
+            }
+
+            return post;
+        });
+    }
+
+    private Post writeTags(long id, Set<Tag> tags, OptionalLong expectedVersion) {
+        Post post = postRepository.findWithTagsById(id).orElseThrow(() -> new PostNotFoundException(id));
+        checkVersion(post, expectedVersion);
+        Set<Tag> oldTags = Set.copyOf(post.getTags());
+
+        Set<Tag> verifiedTags = tagService.resolveTags(tags);
 
         if (verifiedTags.equals(oldTags)) {
             LOGGER.info("Post with id '{}' already has these tags, not updated", post.getId());
@@ -63,23 +284,136 @@ public class PostService {
             return post;
         }
 
-        post.setTags(verifiedTags);
+        // Changed in place, Hibernate then deletes and inserts only the links that differ instead of all of them.
+        // The flush bumps the version only if nobody else did since the post was read, otherwise it fails
+        post.getTags().retainAll(verifiedTags);
+        post.getTags().addAll(verifiedTags);
         Post updatedPost = postRepository.saveAndFlush(post);
+        tagService.countPosts(oldTags, verifiedTags);
 
-        tagService.removeTagIfNoMorePostsAssociated(oldTags);
+        eventPublisher.publishEvent(PostChangedEvent.tagsUpdated(id, oldTags, verifiedTags));
 
         LOGGER.info("Updated tags of post with id '{}'. It now has total of {} tags", updatedPost.getId(), verifiedTags.size());
 
         return updatedPost;
     }
 
+    private Post bufferTags(long id, Set<Tag> tags, OptionalLong expectedVersion) {
+        // Committed before the update is buffered, the flush links the tags this creates
+        Set<Tag> verifiedTags = tagService.resolveTags(tags);
+        // Read-write, so the post comes from the primary rather than a replica that may not have its last write
+        Post updatedPost = tagUpdateBuffer.update(id, verifiedTags, expectedVersion, () -> transactionTemplate.execute(
+                status -> postRepository.findWithTagsById(id).orElseThrow(() -> new PostNotFoundException(id))));
+
+        LOGGER.info("Buffered tags of post with id '{}'. It will have total of {} tags", id, verifiedTags.size());
+
+        return updatedPost;
+    }
+
     @Transactional
     public void delete(long id) {
-        Post post = postRepository.findById(id).orElseThrow(() -> new PostNotFoundException(id));
+        Post post = postRepository.findWithTagsById(id).orElseThrow(() -> new PostNotFoundException(id));
 
         postRepository.deleteById(id);
-        tagService.removeTagIfNoMorePostsAssociated(post.getTags());
+        tagService.countPosts(post.getTags(), Set.of());
+        eventPublisher.publishEvent(PostChangedEvent.deleted(post));
 
         LOGGER.info("Deleted post with id '{}' and title '{}'", post.getId(), post.getTitle());
     }
+
+    // Runs the write again with the names looked up anew if the sweeper deleted a tag whose cached id it used
+    private <T> T linkingTags(Collection<Tag> tags, Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+
+        try {
+            return transactionTemplate.execute(status -> write.get());
+        } catch (RuntimeException e) {
+            if (!refersToMissingRow(e)) {
+                throw e;
+            }
+
+            Set<String> names = tags.stream().map(tag -> TagService.normalizeName(tag.getName())).collect(Collectors.toSet());
+            LOGGER.info("Tags {} were deleted while they were linked, resolving them again", names);
+            tagService.evictCachedIds(names);
+
+            return transactionTemplate.execute(status -> write.get());
+        }
+    }
+
+    private static boolean refersToMissingRow(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof EntityNotFoundException
+                    || cause instanceof SQLException sqlException && MISSING_PARENT_STATES.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void checkVersion(Post post, OptionalLong expectedVersion) {
+        if (expectedVersion.isPresent() && expectedVersion.getAsLong() != post.getVersion()) {
+            throw new PostVersionConflictException(post.getId());
+        }
+    }
+
+    private List<Long> findPageOfIds(Roaring64Bitmap postIds, Pageable pageRequest) {
+        long total = postIds.getLongCardinality();
+        long offset = pageRequest.isPaged() ? pageRequest.getOffset() : 0;
+        if (offset >= total) {
+            return List.of();
+        }
+
+        long pageSize = pageRequest.isPaged() ? Math.min(pageRequest.getPageSize(), total - offset) : total;
+        boolean descending = pageRequest.getSort().stream().anyMatch(Sort.Order::isDescending);
+        PeekableLongIterator iterator = descending
+                ? postIds.getReverseLongIteratorFrom(postIds.select(total - 1 - offset))
+                : postIds.getLongIteratorFrom(postIds.select(offset));
+
+        return take(iterator, pageSize);
+    }
+
+    private List<Long> takeIdsAfter(Roaring64Bitmap postIds, PostCursor cursor, int limit) {
+        if (cursor.direction() == Sort.Direction.ASC) {
+            return take(postIds.getLongIteratorFrom(cursor.lastId() + 1), limit);
+        }
+
+        return cursor.lastId() > 0 ? take(postIds.getReverseLongIteratorFrom(cursor.lastId() - 1), limit) : List.of();
+    }
+
+    private List<Long> take(PeekableLongIterator iterator, long limit) {
+        List<Long> ids = new ArrayList<>((int) Math.min(limit, 1024));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add(iterator.next());
+        }
+
+        return ids;
+    }
+
+    private List<PostView> findViewsInOrder(List<Long> ids, boolean summary) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<PostRow> rows = summary
+                ? postRepository.findSummaryRowsByIdIn(ids, SUMMARY_LENGTH)
+                : postRepository.findRowsByIdIn(ids);
+        Map<Long, PostRow> rowsById = rows.stream().collect(Collectors.toMap(PostRow::id, Function.identity()));
+        Map<Long, List<TagView>> tagsByPostId = postRepository.findTagRowsByPostIdIn(ids).stream()
+                .sorted(Comparator.comparing(PostTagRow::tagName))
+                .collect(Collectors.groupingBy(PostTagRow::postId,
+                        Collectors.mapping(row -> new TagView(row.tagId(), row.tagName()), Collectors.toList())));
+
+        return ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .map(row -> new PostView(row.id(), row.title(), row.content(), tagsByPostId.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    private boolean isSortedById(Sort sort) {
+        return sort.isUnsorted() || sort.stream().allMatch(order -> order.getProperty().equals("id"));
+    }
 }
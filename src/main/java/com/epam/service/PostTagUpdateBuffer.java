@@ -0,0 +1,174 @@
+package com.epam.service;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.exception.PostNotFoundException;
+import com.epam.exception.PostVersionConflictException;
+import com.epam.index.PostChangeCounter;
+import com.epam.index.PostResponseCache;
+import com.epam.model.Post;
+import com.epam.model.Tag;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Component
+public class PostTagUpdateBuffer {
+    // Looked up on flush, the service itself asks this buffer for pending posts
+    private final ObjectProvider<PostService> postService;
+    private final PostResponseCache postResponseCache;
+    private final TaskScheduler taskScheduler;
+    private final Duration window;
+    private final int maxAttempts;
+    private final Counter updatesCoalesced;
+    private final Counter updatesFailed;
+    private final Map<Long, Post> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostTagUpdateBuffer.class);
+
+    @Autowired
+    public PostTagUpdateBuffer(ObjectProvider<PostService> postService, PostResponseCache postResponseCache,
+                               TaskScheduler taskScheduler, MeterRegistry meterRegistry,
+                               @Value("${blog.posts.tag-updates.coalesce-window:PT0S}") Duration window,
+                               @Value("${blog.posts.tag-updates.max-attempts:5}") int maxAttempts) {
+        this.postService = postService;
+        this.postResponseCache = postResponseCache;
+        this.taskScheduler = taskScheduler;
+        this.window = window;
+        this.maxAttempts = maxAttempts;
+        this.updatesCoalesced = Counter.builder("blog.posts.tag-updates.coalesced").register(meterRegistry);
+        this.updatesFailed = Counter.builder("blog.posts.tag-updates.failed").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return !window.isZero() && !window.isNegative();
+    }
+
+    public Optional<Post> pending(long id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    // Checked and buffered in one step, so of two updates expecting the same version only the first gets through
+    public Post update(long id, Set<Tag> tags, OptionalLong expectedVersion, Supplier<Post> stored) {
+        AtomicReference<Post> previous = new AtomicReference<>();
+        AtomicReference<Post> unchanged = new AtomicReference<>();
+        Post updated = pending.compute(id, (key, current) -> {
+            Post post = current != null ? current : stored.get();
+            if (expectedVersion.isPresent() && expectedVersion.getAsLong() != post.getVersion()) {
+                throw new PostVersionConflictException(id);
+            }
+
+            previous.set(current);
+            if (tags.equals(post.getTags())) {
+                unchanged.set(post);
+                return current;
+            }
+
+            Post updatedPost = new Post(id, post.getTitle(), post.getContent(), tags);
+            updatedPost.setVersion(post.getVersion() + 1);
+            return updatedPost;
+        });
+
+        if (unchanged.get() != null) {
+            return unchanged.get();
+        }
+
+        if (previous.get() == null) {
+            schedule(id);
+        } else {
+            updatesCoalesced.increment();
+        }
+        postResponseCache.invalidate(id);
+
+        return updated;
+    }
+
+    public void flush(long id) {
+        Post post = pending.get(id);
+        if (post == null) {
+            return;
+        }
+
+        try {
+            postService.getObject().applyBufferedTags(id, post.getTags(), post.getVersion());
+        } catch (PostNotFoundException e) {
+            LOGGER.info("Post with id '{}' was deleted before its buffered tags were applied", id);
+            failedAttempts.remove(id);
+            pending.remove(id);
+            postResponseCache.invalidate(id);
+            return;
+        } catch (RuntimeException e) {
+            int attempts = failedAttempts.merge(id, 1, Integer::sum);
+            if (isTransient(e) && attempts < maxAttempts) {
+                LOGGER.warn("Could not apply buffered tags of post with id '{}', retrying", id, e);
+                schedule(id);
+                return;
+            }
+
+            // Retrying would fail the same way, or has failed often enough. The update is lost, its caller was
+            // answered long ago
+            LOGGER.error("Dropped buffered tags of post with id '{}' after {} attempts", id, attempts, e);
+            updatesFailed.increment();
+            failedAttempts.remove(id);
+            // Nothing was committed, so no event drops the response cached from the buffered tags
+            if (pending.computeIfPresent(id, (key, current) -> current == post ? null : current) != null) {
+                schedule(id);
+            } else {
+                postResponseCache.invalidate(id);
+            }
+            return;
+        }
+
+        failedAttempts.remove(id);
+        // An update that arrived while this one was written keeps its entry and gets a flush of its own
+        if (pending.computeIfPresent(id, (key, current) -> current == post ? null : current) != null) {
+            schedule(id);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void flushAll() {
+        List.copyOf(pending.keySet()).forEach(this::flush);
+    }
+
+    @Order(PostChangeCounter.ORDER - 1)
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.type() == PostChangedEvent.Type.DELETED) {
+            pending.remove(event.postId());
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void schedule(long id) {
+        taskScheduler.schedule(() -> flush(id), Instant.now().plus(window));
+    }
+}
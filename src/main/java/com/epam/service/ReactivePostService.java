@@ -0,0 +1,56 @@
+package com.epam.service;
+
+import com.epam.dto.PostView;
+import com.epam.dto.PostWithTagRow;
+import com.epam.dto.TagView;
+import com.epam.exception.PostNotFoundException;
+import com.epam.repository.ReactivePostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+public class ReactivePostService {
+    private final ReactivePostRepository reactivePostRepository;
+
+    @Autowired
+    public ReactivePostService(ReactivePostRepository reactivePostRepository) {
+        this.reactivePostRepository = reactivePostRepository;
+    }
+
+    public Flux<PostView> findAll(Set<String> tags, Pageable pageRequest) {
+        long offset = pageRequest.isPaged() ? pageRequest.getOffset() : 0;
+        int limit = pageRequest.isPaged() ? pageRequest.getPageSize() : Integer.MAX_VALUE;
+        Flux<PostWithTagRow> rows = tags.isEmpty()
+                ? reactivePostRepository.findRows(offset, limit)
+                : reactivePostRepository.findRowsByAllTags(tags, offset, limit);
+
+        return toViews(rows);
+    }
+
+    public Mono<PostView> findById(long id) {
+        return toViews(reactivePostRepository.findRowsById(id))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new PostNotFoundException(id)));
+    }
+
+    private Flux<PostView> toViews(Flux<PostWithTagRow> rows) {
+        return rows.bufferUntilChanged(PostWithTagRow::id).map(this::toView);
+    }
+
+    private PostView toView(List<PostWithTagRow> rows) {
+        PostWithTagRow post = rows.get(0);
+        List<TagView> tags = rows.stream()
+                .filter(row -> Objects.nonNull(row.tagId()))
+                .map(row -> new TagView(row.tagId(), row.tagName()))
+                .toList();
+
+        return new PostView(post.id(), post.title(), post.content(), tags);
+    }
+}
@@ -0,0 +1,76 @@
+package com.epam.service;
+
+import com.epam.index.TagIndex;
+import com.epam.repository.TagPostCountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class TagFilterPlanner {
+    public enum Strategy {
+        EMPTY, INDEX, RAREST_FIRST, GROUP_BY
+    }
+
+    // Tags are ordered from the fewest to the most posts
+    public record Plan(Strategy strategy, List<String> tags) {
+    }
+
+    private final TagIndex tagIndex;
+    private final TagPostCountRepository tagPostCountRepository;
+    private final double rareTagRatio;
+    private final Map<Strategy, Counter> choices = new EnumMap<>(Strategy.class);
+
+    @Autowired
+    public TagFilterPlanner(TagIndex tagIndex, TagPostCountRepository tagPostCountRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${blog.posts.tag-filter.rare-tag-ratio:0.1}") double rareTagRatio) {
+        this.tagIndex = tagIndex;
+        this.tagPostCountRepository = tagPostCountRepository;
+        this.rareTagRatio = rareTagRatio;
+        for (Strategy strategy : Strategy.values()) {
+            choices.put(strategy, Counter.builder("blog.posts.tag.filter")
+                    .tag("strategy", strategy.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public Plan plan(Set<String> tags, boolean sortedById) {
+        Plan plan = choose(tags, sortedById);
+        choices.get(plan.strategy()).increment();
+
+        return plan;
+    }
+
+    private Plan choose(Set<String> tags, boolean sortedById) {
+        // The index answers from memory, otherwise the counters cost one small query
+        Map<String, Long> postCounts = tagIndex.findPostCounts(tags)
+                .orElseGet(() -> tagPostCountRepository.findPostCounts(tags));
+        List<String> byPostCount = tags.stream()
+                .sorted(Comparator.comparingLong((String tag) -> postCounts.getOrDefault(tag, 0L)))
+                .toList();
+
+        long rarest = byPostCount.isEmpty() ? 0 : postCounts.getOrDefault(byPostCount.get(0), 0L);
+        if (rarest == 0) {
+            return new Plan(Strategy.EMPTY, byPostCount);
+        }
+        if (sortedById && tagIndex.isReady()) {
+            return new Plan(Strategy.INDEX, byPostCount);
+        }
+        // Grouping reads every link of every tag, probing the other tags only costs a lookup per post of the rarest
+        long others = byPostCount.stream().skip(1).mapToLong(tag -> postCounts.getOrDefault(tag, 0L)).sum();
+        if (byPostCount.size() == 1 || rarest <= others * rareTagRatio) {
+            return new Plan(Strategy.RAREST_FIRST, byPostCount);
+        }
+
+        return new Plan(Strategy.GROUP_BY, byPostCount);
+    }
+}
@@ -1,40 +1,176 @@
 package com.epam.service;
 
+import com.epam.dto.TagPostCount;
 import com.epam.model.Tag;
+import com.epam.repository.TagPostCountRepository;
 import com.epam.repository.TagRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "blog.service.operation", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class TagService {
     private final TagRepository tagRepository;
+    private final TagPostCountRepository tagPostCountRepository;
+    private final Cache<String, Long> tagIdCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter tagsCreated;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+    private static final String INSERT_MISSING_TAG = """
+            MERGE INTO tag t USING (SELECT CAST(? AS VARCHAR(255)) AS name) s ON t.name = s.name
+            WHEN NOT MATCHED THEN INSERT (name) VALUES (s.name)""";
     private static final Logger LOGGER = LoggerFactory.getLogger(TagService.class);
 
     @Autowired
-    public TagService(TagRepository tagRepository) {
+    public TagService(TagRepository tagRepository, TagPostCountRepository tagPostCountRepository,
+                      Cache<String, Long> tagIdCache, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
         this.tagRepository = tagRepository;
+        this.tagPostCountRepository = tagPostCountRepository;
+        this.tagIdCache = tagIdCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tagsCreated = Counter.builder("blog.tags.created").register(meterRegistry);
     }
 
     @Transactional
-    public Tag enrichTagWithId(Tag tag) {
-        String normalizedName = tag.getName().trim().toLowerCase();
-        tag.setName(normalizedName);
+    public Set<Tag> resolveTags(Set<Tag> tags) {
+        Set<String> names = tags.stream()
+                .map(tag -> normalizeName(tag.getName()))
+                .collect(Collectors.toSet());
 
-        return tagRepository.findByName(normalizedName).orElseGet(() -> tagRepository.save(tag));
+        Set<Tag> resolved = new HashSet<>(names.size());
+        Set<String> missing = new HashSet<>();
+        names.forEach(name -> {
+            Long cachedId = tagIdCache.getIfPresent(name);
+            if (cachedId != null) {
+                resolved.add(new Tag(cachedId, name, new HashSet<>()));
+            } else {
+                missing.add(name);
+            }
+        });
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        collectExisting(missing, resolved);
+        for (int attempt = 1; !missing.isEmpty(); attempt++) {
+            if (attempt > MAX_INSERT_ATTEMPTS) {
+                throw new IllegalStateException("Could not resolve tags " + missing);
+            }
+
+            Set<String> toInsert = Set.copyOf(missing);
+            try {
+                insertTags(toInsert);
+            } catch (DuplicateKeyException e) {
+                // A concurrent request committed some of these names first, pick up its rows instead
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.info("Tags {} were created concurrently, reloading them", toInsert);
+                collectExisting(missing, resolved);
+                continue;
+            }
+
+            List<Tag> created = tagRepository.findByNameIn(toInsert);
+            tagPostCountRepository.createStripes(created.stream().map(Tag::getId).toList());
+            created.forEach(tag -> {
+                missing.remove(tag.getName());
+                resolved.add(tag);
+                // A new tag's id only becomes valid for other requests once it is committed
+                afterCommit(() -> tagIdCache.put(tag.getName(), tag.getId()));
+            });
+            afterCommit(() -> tagsCreated.increment(created.size()));
+            LOGGER.info("Created {} new tags", created.size());
+        }
+
+        return resolved;
     }
 
     @Transactional
-    public void removeTagIfNoMorePostsAssociated(Set<Tag> tags) {
-        tags.stream()
-                .filter(tag -> tag.getPosts().isEmpty())
-                .forEach(tag -> {
-                    tagRepository.delete(tag);
-                    LOGGER.info("Tag '{}' became unassociated and deleted", tag.getName());
-                });
+    public void countPosts(Collection<Tag> oldTags, Collection<Tag> newTags) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        oldTags.forEach(tag -> deltas.merge(tag.getId(), -1, Integer::sum));
+        newTags.forEach(tag -> deltas.merge(tag.getId(), 1, Integer::sum));
+        deltas.values().removeIf(delta -> delta == 0);
+
+        tagPostCountRepository.add(deltas);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TagPostCount> findMostUsed(int limit) {
+        return tagPostCountRepository.findTop(limit);
+    }
+
+    // The next resolve of these names looks them up in the database again
+    public void evictCachedIds(Collection<String> names) {
+        tagIdCache.invalidateAll(names);
+    }
+
+    public static String normalizeName(String name) {
+        return name.trim().toLowerCase();
+    }
+
+    private void collectExisting(Set<String> missing, Set<Tag> resolved) {
+        tagRepository.findByNameIn(Set.copyOf(missing)).forEach(tag -> {
+            missing.remove(tag.getName());
+            resolved.add(tag);
+            tagIdCache.put(tag.getName(), tag.getId());
+        });
+    }
+
+    private void insertTags(Set<String> names) {
+        // The savepoint keeps a unique violation from aborting the surrounding transaction
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_MISSING_TAG)) {
+                for (String name : names) {
+                    statement.setString(1, name);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+
+            return null;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
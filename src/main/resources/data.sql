@@ -1,29 +1,29 @@
-INSERT INTO post (title, content) VALUES
-    ('Article about Java, Spring, and Cloud', 'Content about Java, Spring, and Cloud'),
-    ('Introduction to Spring Boot', 'Content about Spring Boot'),
-    ('Cloud Computing Basics', 'Content about Cloud Computing'),
-    ('Java Programming Fundamentals', 'Content about Java Programming'),
-    ('Getting Started with Spring Security', 'Content about Spring Security'),
-    ('Microservices Architecture Overview', 'Content about Microservices Architecture'),
-    ('Java 8 Features and Streams', 'Content about Java 8 Features and Streams'),
-    ('Spring Data JPA Tutorial', 'Content about Spring Data JPA'),
-    ('Cloud-Native Application Development', 'Content about Cloud-Native Development'),
-    ('Advanced Java Concepts', 'Content about Advanced Java'),
-    ('Deep Dive into Spring Framework', 'Content about in-depth Spring Framework'),
-    ('Building Scalable Cloud Applications', 'Content about Scalable Cloud Applications'),
-    ('Java Multithreading Techniques', 'Content about Java Multithreading'),
-    ('Securing Microservices with OAuth', 'Content about OAuth and Microservices'),
-    ('Mastering Spring Boot Configuration', 'Content about Spring Boot Configuration'),
-    ('Cloud Storage Solutions for Developers', 'Content about Cloud Storage'),
-    ('Exploring Java 9 Modules', 'Content about Java 9 Modules'),
-    ('Advanced Spring Security Features', 'Content about Advanced Spring Security'),
-    ('Event-Driven Architecture with Spring Kafka', 'Content about Event-Driven Architecture'),
-    ('Optimizing Java Code for Performance', 'Content about Java Code Optimization'),
-    ('Serverless Computing and its Benefits', 'Content about Serverless Computing'),
-    ('Data Encryption in Cloud Applications', 'Content about Data Encryption'),
-    ('Java Design Patterns in Practice', 'Content about Java Design Patterns'),
-    ('Spring Boot Testing Strategies', 'Content about Spring Boot Testing'),
-    ('Developing RESTful APIs with Spring', 'Content about RESTful APIs and Spring');
+INSERT INTO post (id, title, content) VALUES
+    (1, 'Article about Java, Spring, and Cloud', 'Content about Java, Spring, and Cloud'),
+    (2, 'Introduction to Spring Boot', 'Content about Spring Boot'),
+    (3, 'Cloud Computing Basics', 'Content about Cloud Computing'),
+    (4, 'Java Programming Fundamentals', 'Content about Java Programming'),
+    (5, 'Getting Started with Spring Security', 'Content about Spring Security'),
+    (6, 'Microservices Architecture Overview', 'Content about Microservices Architecture'),
+    (7, 'Java 8 Features and Streams', 'Content about Java 8 Features and Streams'),
+    (8, 'Spring Data JPA Tutorial', 'Content about Spring Data JPA'),
+    (9, 'Cloud-Native Application Development', 'Content about Cloud-Native Development'),
+    (10, 'Advanced Java Concepts', 'Content about Advanced Java'),
+    (11, 'Deep Dive into Spring Framework', 'Content about in-depth Spring Framework'),
+    (12, 'Building Scalable Cloud Applications', 'Content about Scalable Cloud Applications'),
+    (13, 'Java Multithreading Techniques', 'Content about Java Multithreading'),
+    (14, 'Securing Microservices with OAuth', 'Content about OAuth and Microservices'),
+    (15, 'Mastering Spring Boot Configuration', 'Content about Spring Boot Configuration'),
+    (16, 'Cloud Storage Solutions for Developers', 'Content about Cloud Storage'),
+    (17, 'Exploring Java 9 Modules', 'Content about Java 9 Modules'),
+    (18, 'Advanced Spring Security Features', 'Content about Advanced Spring Security'),
+    (19, 'Event-Driven Architecture with Spring Kafka', 'Content about Event-Driven Architecture'),
+    (20, 'Optimizing Java Code for Performance', 'Content about Java Code Optimization'),
+    (21, 'Serverless Computing and its Benefits', 'Content about Serverless Computing'),
+    (22, 'Data Encryption in Cloud Applications', 'Content about Data Encryption'),
+    (23, 'Java Design Patterns in Practice', 'Content about Java Design Patterns'),
+    (24, 'Spring Boot Testing Strategies', 'Content about Spring Boot Testing'),
+    (25, 'Developing RESTful APIs with Spring', 'Content about RESTful APIs and Spring');
 
 INSERT INTO tag (name) VALUES
     ('java'),
@@ -63,3 +63,8 @@ INSERT INTO posts_tags (post_id, tag_id) VALUES
     (23, 1), (23, 8),
     (24, 3), (24, 6),
     (25, 1), (25, 4);
+
+-- All 16 stripes of every tag, as TagPostCountRepository.createStripes makes them, with the count in stripe 0
+INSERT INTO tag_post_count (tag_id, stripe, post_count)
+SELECT t.id, s.stripe, CASE WHEN s.stripe = 0 THEN (SELECT COUNT(*) FROM posts_tags pt WHERE pt.tag_id = t.id) ELSE 0 END
+FROM tag t CROSS JOIN (VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15)) AS s (stripe);
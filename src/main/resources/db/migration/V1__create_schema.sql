@@ -0,0 +1,29 @@
+CREATE SEQUENCE post_id_seq START WITH 1000 INCREMENT BY 50;
+
+CREATE TABLE post (
+    id bigint PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    content TEXT NOT NULL,
+    version bigint NOT NULL DEFAULT 0
+);
+
+CREATE TABLE tag (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE posts_tags (
+    post_id bigint,
+    tag_id bigint,
+    PRIMARY KEY (post_id, tag_id),
+    FOREIGN KEY (post_id) REFERENCES post (id) ON DELETE CASCADE,
+    FOREIGN KEY (tag_id) REFERENCES tag (id)
+);
+
+CREATE TABLE tag_post_count (
+    tag_id bigint,
+    stripe int,
+    post_count bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (tag_id, stripe),
+    FOREIGN KEY (tag_id) REFERENCES tag (id) ON DELETE CASCADE
+);
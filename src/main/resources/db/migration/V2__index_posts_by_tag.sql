@@ -0,0 +1,3 @@
+-- The primary key only serves lookups by post. Tag filters, the orphan sweep and the foreign key check on tag
+-- deletes go from a tag to its posts, and with post_id in the index they never have to read the table itself
+CREATE INDEX posts_tags_tag_id_post_id_idx ON posts_tags (tag_id, post_id);
@@ -1,8 +1,11 @@
 package com.epam.component.controller;
 
 import com.epam.controller.PostController;
+import com.epam.index.PostResponseCache;
 import com.epam.model.Post;
 import com.epam.model.Tag;
+import com.epam.service.PostBatchService;
+import com.epam.service.PostExportService;
 import com.epam.service.PostService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -15,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -31,6 +35,15 @@ public class PostControllerValidationTest {
     @MockBean
     PostService postService;
 
+    @MockBean
+    PostBatchService postBatchService;
+
+    @MockBean
+    PostExportService postExportService;
+
+    @MockBean
+    PostResponseCache postResponseCache;
+
     @Test
     void testCreatePost_returns_422() throws Exception {
         Post requestBody = new Post();
@@ -63,4 +76,15 @@ public class PostControllerValidationTest {
                         content().string(containsString("Tag name cannot be empty"))
                 );
     }
+
+    @Test
+    void testSearch_returns_422() throws Exception {
+        mockMvc.perform(get("/api/v1/posts/search").param("q", " "))
+                .andExpect(status().is(422))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpectAll(
+                        content().string(containsString("errors")),
+                        content().string(containsString("Search query cannot be empty"))
+                );
+    }
 }
@@ -0,0 +1,43 @@
+package com.epam.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:metrics")
+@ActiveProfiles("test")
+@AutoConfigureObservability
+public class MetricsIntegrationTest {
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Test
+    void testPrometheus_exposesServiceAndRequestMetrics() {
+        restTemplate.getForEntity("/api/v1/posts?tag=java,spring", String.class);
+        restTemplate.getForEntity("/api/v1/posts/1", String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("blog_service_operation_seconds_count{class=\"com.epam.service.PostService\",exception=\"none\","
+                        + "method=\"findByAllTags\",tags=\"2\"")
+                .contains("blog_service_operation_seconds{class=\"com.epam.service.PostService\",exception=\"none\","
+                        + "method=\"findById\",tags=\"n/a\",quantile=\"0.99\"")
+                .contains("blog_http_sql_statements_count{method=\"GET\",uri=\"/api/v1/posts/{id}\"")
+                .contains("blog_posts_tag_filter_total{strategy=\"index\",}")
+                .contains("cache_gets_total{cache=\"post\",result=\"hit\",}")
+                .contains("cache_gets_total{cache=\"posts-by-tags\",result=\"miss\",}")
+                .contains("blog_tags_created_total")
+                .contains("blog_tags_deleted_total")
+                .contains("hikaricp_connections_active");
+    }
+}
@@ -0,0 +1,104 @@
+package com.epam.integration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// H2 in PostgreSQL mode stands in for the production database: the migrations have to run on it as written,
+// and the plans of the tag lookups have to go through the indexes they create
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MigrationQueryPlanTest {
+    private static final String TAG_INDEX = "posts_tags_tag_id_post_id_idx";
+    private static final int TAGS = 100;
+    private static final int POSTS = 5000;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private MigrateResult migrateResult;
+
+    @BeforeAll
+    void setup() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH", "sa", "");
+        migrateResult = Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Enough rows for the optimizer to prefer an index over scanning
+        List<Object[]> tags = new ArrayList<>();
+        List<Object[]> posts = new ArrayList<>();
+        List<Object[]> links = new ArrayList<>();
+        for (int tag = 1; tag <= TAGS; tag++) {
+            tags.add(new Object[]{"tag" + tag});
+        }
+        for (long post = 1; post <= POSTS; post++) {
+            posts.add(new Object[]{post});
+            links.add(new Object[]{post, post % TAGS + 1});
+            links.add(new Object[]{post, (post + 1) % TAGS + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tag (name) VALUES (?)", tags);
+        jdbcTemplate.batchUpdate("INSERT INTO post (id, title, content) VALUES (?, 'Title', 'Content')", posts);
+        jdbcTemplate.batchUpdate("INSERT INTO posts_tags (post_id, tag_id) VALUES (?, ?)", links);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void testMigrate_createsSchemaWithTagIndex() {
+        assertThat(migrateResult.success).isTrue();
+        assertThat(migrateResult.migrationsExecuted).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.indexes WHERE index_name = ?", Long.class, TAG_INDEX))
+                .isPositive();
+    }
+
+    @Test
+    void testPlan_tagFilterReadsPostsThroughTagIndex() {
+        // The statement Hibernate generates for PostRepository.findIdsByAllTags
+        assertThat(explain("""
+                SELECT p1_0.id FROM post p1_0
+                JOIN posts_tags t1_0 ON p1_0.id = t1_0.post_id
+                JOIN tag t1_1 ON t1_1.id = t1_0.tag_id
+                WHERE t1_1.name IN ('tag1', 'tag2')
+                GROUP BY p1_0.id HAVING COUNT(DISTINCT t1_1.id) = 2
+                ORDER BY p1_0.id OFFSET 0 ROWS FETCH FIRST 20 ROWS ONLY""")).contains(TAG_INDEX);
+    }
+
+    @Test
+    void testPlan_reactiveTagFilterReadsPostIdsFromTagIndex() {
+        // The subquery of ReactivePostRepository, served from the index alone since it holds both columns
+        assertThat(explain("""
+                SELECT pt.post_id FROM posts_tags pt JOIN tag t ON t.id = pt.tag_id
+                WHERE t.name IN ('tag1', 'tag2') GROUP BY pt.post_id HAVING COUNT(*) = 2""")).contains(TAG_INDEX);
+    }
+
+    @Test
+    void testPlan_rarestTagFilterProbesOtherTagsByKey() {
+        // The statement Hibernate generates for PostRepositoryCustomImpl.findIdsByRarestTag
+        String plan = explain("""
+                SELECT p1_0.id FROM post p1_0
+                JOIN posts_tags t1_0 ON p1_0.id = t1_0.post_id
+                JOIN tag t1_1 ON t1_1.id = t1_0.tag_id
+                WHERE t1_1.name = 'tag1'
+                AND EXISTS (SELECT 1 FROM posts_tags t2_0 JOIN tag t2_1 ON t2_1.id = t2_0.tag_id
+                    WHERE p1_0.id = t2_0.post_id AND t2_1.name = 'tag2')
+                ORDER BY p1_0.id OFFSET 0 ROWS FETCH FIRST 20 ROWS ONLY""");
+        int exists = plan.indexOf("EXISTS");
+
+        // The rare tag's posts come from the tag index, and each EXISTS is one lookup on both columns of a key
+        assertThat(plan.substring(0, exists)).contains(TAG_INDEX);
+        assertThat(plan.substring(exists)).contains("tag_id = t2_1.id", "post_id = p1_0.id");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.epam.integration;
+
+import com.epam.model.Tag;
+import com.epam.repository.TagRepository;
+import com.epam.service.OrphanTagSweeper;
+import com.epam.service.TagService;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:sweeper", "blog.tags.sweep.grace-period=PT0S"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class OrphanTagSweeperIntegrationTest {
+    private static final String TAGS_OF_POST = """
+            SELECT t.name FROM posts_tags pt JOIN tag t ON t.id = pt.tag_id WHERE pt.post_id = ?""";
+
+    @Autowired
+    OrphanTagSweeper orphanTagSweeper;
+
+    @Autowired
+    TagRepository tagRepository;
+
+    @Autowired
+    TagService tagService;
+
+    @Autowired
+    Cache<String, Long> tagIdCache;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void setup() {
+        restTemplate.getRestTemplate().setRequestFactory(new HttpComponentsClientHttpRequestFactory(HttpClients.createDefault()));
+    }
+
+    @Test
+    void testSweep_deletesOnlyTagsWithoutPosts() {
+        long tagsWithPosts = tagRepository.count();
+        jdbcTemplate.update("INSERT INTO tag (name) VALUES ('orphan-1'), ('orphan-2')");
+
+        int deleted = orphanTagSweeper.sweep();
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(tagRepository.findByNameIn(List.of("orphan-1", "orphan-2"))).isEmpty();
+        assertThat(tagRepository.count()).isEqualTo(tagsWithPosts);
+    }
+
+    @Test
+    void testUpdateTags_recreatesTagSweptAfterItsIdWasCached() {
+        jdbcTemplate.update("INSERT INTO tag (name) VALUES ('swept')");
+        long sweptId = tagService.resolveTags(Set.of(new Tag("swept"))).iterator().next().getId();
+        orphanTagSweeper.sweep();
+        // As held by a request that resolved the name just before the delete, or by another instance's cache
+        tagIdCache.put("swept", sweptId);
+
+        ResponseEntity<String> response = patchTags(6, "swept");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jdbcTemplate.queryForList(TAGS_OF_POST, String.class, 6)).containsExactly("swept");
+        assertThat(tagIdCache.getIfPresent("swept")).isNotEqualTo(sweptId);
+    }
+
+    @Test
+    void testUpdateTags_reattachesNameWhileSweepDeletesIt() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String name = "contested-" + round;
+                jdbcTemplate.update("INSERT INTO tag (name) VALUES (?)", name);
+                tagService.resolveTags(Set.of(new Tag(name)));
+                CyclicBarrier start = new CyclicBarrier(2);
+
+                CompletableFuture<Integer> sweep = CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return orphanTagSweeper.sweep();
+                }, executor);
+                CompletableFuture<ResponseEntity<String>> patch = CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return patchTags(7, name);
+                }, executor);
+
+                sweep.get();
+                assertThat(patch.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+                assertThat(jdbcTemplate.queryForList(TAGS_OF_POST, String.class, 7)).containsExactly(name);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private ResponseEntity<String> patchTags(long id, String name) {
+        return restTemplate.exchange("/api/v1/posts/" + id + "/tags", HttpMethod.PATCH,
+                new HttpEntity<>(Set.of(new Tag(name))), String.class);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
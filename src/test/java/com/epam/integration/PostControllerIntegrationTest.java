@@ -1,7 +1,13 @@
 package com.epam.integration;
 
+import com.epam.dto.PostBatchReport;
+import com.epam.index.PostSearchIndex;
 import com.epam.model.Post;
+import com.epam.model.Tag;
 import com.epam.repository.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.junit.jupiter.api.BeforeAll;
@@ -21,11 +27,21 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,6 +55,15 @@ public class PostControllerIntegrationTest {
     @Autowired
     PostRepository postRepository;
 
+    @Autowired
+    PostSearchIndex postSearchIndex;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     @LocalServerPort
     private int port;
 
@@ -51,6 +76,12 @@ public class PostControllerIntegrationTest {
         restTemplate.getRestTemplate().setRequestFactory(new HttpComponentsClientHttpRequestFactory(client));
     }
 
+    void awaitSearchIndex() throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !postSearchIndex.isReady(); attempt++) {
+            Thread.sleep(100);
+        }
+    }
+
     @Test
     void testGetAll_noPagination() {
         HttpHeaders headers = new HttpHeaders();
@@ -125,6 +156,144 @@ public class PostControllerIntegrationTest {
                         .isTrue());
     }
 
+    @Test
+    void testGetAll_withSummary() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Object> request = new HttpEntity<>(headers);
+        String longContent = "x".repeat(1000);
+        restTemplate.postForEntity(baseUrl, new HttpEntity<>(Map.of("title", "Long post", "content", longContent), headers),
+                Post.class);
+
+        ResponseEntity<List<Post>> response = restTemplate.exchange(
+                baseUrl + "?summary=true&sort=id,desc&size=1", HttpMethod.GET, request,
+                new ParameterizedTypeReference<List<Post>>() {});
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get(0).getTitle()).isEqualTo("Long post");
+        assertThat(response.getBody().get(0).getContent()).isEqualTo(longContent.substring(0, 200));
+    }
+
+    @Test
+    void testGetAll_withTotalCount() {
+        ResponseEntity<String> filtered = restTemplate.getForEntity(baseUrl + "?tag=java&size=2&count=true", String.class);
+        ResponseEntity<String> all = restTemplate.getForEntity(baseUrl + "?count=true", String.class);
+        ResponseEntity<String> withoutCount = restTemplate.getForEntity(baseUrl, String.class);
+
+        assertThat(filtered.getHeaders().getFirst("X-Total-Count")).isEqualTo("11");
+        assertThat(all.getHeaders().getFirst("X-Total-Count")).isEqualTo(String.valueOf(postRepository.count()));
+        assertThat(withoutCount.getHeaders().containsKey("X-Total-Count")).isFalse();
+    }
+
+    @Test
+    void testGetAll_withCursorPagination() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Object> request = new HttpEntity<>(headers);
+
+        ResponseEntity<List<Post>> firstPage = restTemplate.exchange(
+                baseUrl + "?tag=java&size=4&sort=id,desc", HttpMethod.GET, request,
+                new ParameterizedTypeReference<List<Post>>() {});
+        String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+
+        ResponseEntity<List<Post>> secondPage = restTemplate.exchange(
+                baseUrl + "?tag=java&size=4&after=" + cursor, HttpMethod.GET, request,
+                new ParameterizedTypeReference<List<Post>>() {});
+
+        assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstPage.getBody()).extracting(Post::getId).containsExactly(25L, 23L, 20L, 18L);
+        assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(secondPage.getBody()).extracting(Post::getId).containsExactly(16L, 13L, 10L, 7L);
+    }
+
+    @Test
+    void testGetAll_withCursorPaginationByTitle() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Object> request = new HttpEntity<>(headers);
+
+        ResponseEntity<List<Post>> firstPage = restTemplate.exchange(
+                baseUrl + "?tag=java&size=3&sort=title", HttpMethod.GET, request,
+                new ParameterizedTypeReference<List<Post>>() {});
+        String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+
+        ResponseEntity<List<Post>> secondPage = restTemplate.exchange(
+                baseUrl + "?tag=java&size=3&after=" + cursor, HttpMethod.GET, request,
+                new ParameterizedTypeReference<List<Post>>() {});
+
+        assertThat(firstPage.getBody()).extracting(Post::getTitle).containsExactly(
+                "Advanced Java Concepts", "Advanced Spring Security Features", "Article about Java, Spring, and Cloud");
+        assertThat(secondPage.getBody()).extracting(Post::getTitle).containsExactly(
+                "Cloud Storage Solutions for Developers", "Developing RESTful APIs with Spring", "Introduction to Spring Boot");
+    }
+
+    @Test
+    void testGetAll_withMalformedCursorReturns400() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "?after=garbage", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("errors", "Malformed pagination cursor");
+    }
+
+    @Test
+    void testSearch_ranksMatchesWithinTagFilter() throws InterruptedException {
+        awaitSearchIndex();
+
+        ResponseEntity<List<Post>> response = restTemplate.exchange(
+                baseUrl + "/search?q=multithreading java&tag=java", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Post>>() {});
+
+        List<Post> actual = response.getBody();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(actual.get(0).getTitle()).isEqualTo("Java Multithreading Techniques");
+        assertThat(actual).allMatch(post -> post.getTags().stream().anyMatch(tag -> tag.getName().equals("java")));
+    }
+
+    @Test
+    void testSearch_findsCreatedPost() throws InterruptedException {
+        awaitSearchIndex();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(baseUrl, new HttpEntity<>(
+                Map.of("title", "Quarkus", "content", "Supersonic subatomic"), headers), String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/search?q=subatomic", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("Quarkus");
+    }
+
+    @Test
+    void testExportPosts_streamsNdjsonWithFilters() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + ":export?tag=java&since-id=10", String.class);
+
+        List<String> lines = response.getBody().lines().toList();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/x-ndjson");
+        assertThat(response.getBody()).endsWith("\n");
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(0)).startsWith("{\"id\":13,\"title\":\"Java Multithreading Techniques\"");
+        assertThat(lines.get(5)).startsWith("{\"id\":25,");
+    }
+
+    @Test
+    void testExportPosts_leavesSecondLevelCacheAsItWas() throws IOException {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Post.class);
+        postRepository.findById(1L);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + ":export", String.class);
+
+        List<Long> exportedIds = new ArrayList<>();
+        for (String line : response.getBody().lines().toList()) {
+            exportedIds.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertThat(exportedIds).hasSizeGreaterThan(20).contains(1L);
+        assertThat(exportedIds).filteredOn(id -> cache.contains(Post.class, id)).containsExactly(1L);
+    }
+
     @Test
     void testGetOne_returnsPost() {
         ResponseEntity<Post> response = restTemplate.getForEntity(baseUrl + "/1", Post.class);
@@ -138,6 +307,86 @@ public class PostControllerIntegrationTest {
         assertThat(actual.getTags()).hasSize(3);
     }
 
+    @Test
+    void testGetOne_returnsNotModifiedForMatchingETag() {
+        ResponseEntity<String> first = restTemplate.getForEntity(baseUrl + "/3", String.class);
+        String eTag = first.getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+
+        ResponseEntity<String> second = restTemplate.exchange(
+                baseUrl + "/3", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(first.getHeaders().get(HttpHeaders.ETAG)).containsExactly("\"3.0\"");
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    void testGetOne_sendsGzippedPostToClientsAcceptingIt() throws IOException, InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Post created = restTemplate.postForObject(baseUrl, new HttpEntity<>(
+                Map.of("title", "Gzip", "content", "Gzip content ".repeat(500), "tags", Set.of("gzip")), headers),
+                Post.class);
+
+        // The JDK client leaves the body as it was sent, unlike the Apache one which inflates it on the way
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/" + created.getId()))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+        assertThat(response.body().length).isLessThan(created.getContent().length());
+        try (InputStream json = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(json.readAllBytes(), StandardCharsets.UTF_8)).contains("Gzip content");
+        }
+    }
+
+    @Test
+    void testGetAll_returnsNotModifiedUntilMatchingPostChanges() {
+        String url = baseUrl + "?tag=etag";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(baseUrl, new HttpEntity<>(
+                Map.of("title", "ETag", "content", "ETag content", "tags", Set.of("etag")), headers), String.class);
+
+        ResponseEntity<String> first = restTemplate.getForEntity(url, String.class);
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(first.getHeaders().getETag());
+        ResponseEntity<String> unchanged = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+
+        restTemplate.postForEntity(baseUrl, new HttpEntity<>(
+                Map.of("title", "ETag 2", "content", "ETag content", "tags", Set.of("etag")), headers), String.class);
+        ResponseEntity<String> changed = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+
+        assertThat(first.getHeaders().get(HttpHeaders.ETAG)).hasSize(1);
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).contains("ETag 2");
+    }
+
+    @Test
+    void testGetAll_cachedTagFilterAndPostFollowTagUpdates() {
+        String url = baseUrl + "?tag=cached";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Post created = restTemplate.postForObject(baseUrl, new HttpEntity<>(
+                Map.of("title", "Cached", "content", "Cached content", "tags", Set.of("cached")), headers), Post.class);
+
+        String before = restTemplate.getForObject(url, String.class);
+        restTemplate.getForObject(baseUrl + "/" + created.getId(), String.class);
+        restTemplate.exchange(baseUrl + "/" + created.getId() + "/tags", HttpMethod.PATCH,
+                new HttpEntity<>(Set.of("uncached"), headers), Post.class);
+
+        assertThat(before).contains("Cached content");
+        assertThat(restTemplate.getForObject(url, String.class)).isEqualTo("[]");
+        assertThat(restTemplate.getForObject(baseUrl + "/" + created.getId(), String.class))
+                .contains("uncached")
+                .doesNotContain("\"cached\"");
+    }
+
     @Test
     void testGetOne_returns404() {
         ResponseEntity<Post> response = restTemplate.getForEntity(baseUrl + "/100", Post.class);
@@ -183,6 +432,45 @@ public class PostControllerIntegrationTest {
         assertThat(response.getBody()).contains("errors", "Post content cannot be empty", "Title cannot be empty");
     }
 
+    @Test
+    void testCreatePosts_savesValidItemsAndReportsInvalidOnes() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        List<Map<String, Object>> jsonList = List.of(
+                Map.of("title", "Batch 1", "content", "Batch content", "tags", Set.of("Batch", "Import")),
+                Map.of("title", "", "content", "Batch content"),
+                Map.of("title", "Batch 3", "content", "Batch content", "tags", Set.of("batch")));
+        HttpEntity<List<Map<String, Object>>> request = new HttpEntity<>(jsonList, headers);
+
+        ResponseEntity<PostBatchReport> response = restTemplate.postForEntity(
+                baseUrl + ":batch", request, PostBatchReport.class);
+
+        PostBatchReport actual = response.getBody();
+        ResponseEntity<List<Post>> filtered = restTemplate.exchange(
+                baseUrl + "?tag=batch", HttpMethod.GET, null, new ParameterizedTypeReference<List<Post>>() {});
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(actual.created()).isEqualTo(2);
+        assertThat(actual.failed()).isEqualTo(1);
+        assertThat(actual.items().get(1).errors()).containsExactly("Title cannot be empty");
+        assertThat(postRepository.findWithTagsById(actual.items().get(0).id()).get().getTags())
+                .extracting(Tag::getName)
+                .containsExactlyInAnyOrder("batch", "import");
+        assertThat(filtered.getBody()).extracting(Post::getTitle).containsExactly("Batch 1", "Batch 3");
+    }
+
+    @Test
+    void testCreatePosts_returns400WhenBodyIsNotArray() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> request = new HttpEntity<>("{\"title\": \"Not a batch\"}", headers);
+
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl + ":batch", request, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Request body must be a JSON array of posts");
+    }
+
     @Test
     void testUpdatePostTags_returnsUpdatedPost() {
         HttpHeaders headers = new HttpHeaders();
@@ -198,6 +486,32 @@ public class PostControllerIntegrationTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(actual).isEqualTo(expected);
+        assertThat(expected.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdatePostTags_withIfMatchUpdatesOnlySeenVersion() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Post created = restTemplate.postForObject(baseUrl, new HttpEntity<>(
+                Map.of("title", "If-Match", "content", "If-Match content", "tags", Set.of("first")), headers), Post.class);
+        String url = baseUrl + "/" + created.getId() + "/tags";
+        String seen = restTemplate.getForEntity(baseUrl + "/" + created.getId(), String.class).getHeaders().getETag();
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setContentType(MediaType.APPLICATION_JSON);
+        conditional.setIfMatch(seen);
+        ResponseEntity<Post> updated = restTemplate.exchange(
+                url, HttpMethod.PATCH, new HttpEntity<>(Set.of("second"), conditional), Post.class);
+        ResponseEntity<String> stale = restTemplate.exchange(
+                url, HttpMethod.PATCH, new HttpEntity<>(Set.of("third"), conditional), String.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updated.getHeaders().getETag()).isEqualTo("\"" + created.getId() + ".1\"");
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(stale.getBody()).contains("Post was changed by another request");
+        assertThat(postRepository.findWithTagsById(created.getId()).get().getTags())
+                .extracting(Tag::getName).containsExactly("second");
     }
 
     @Test
@@ -0,0 +1,163 @@
+package com.epam.integration;
+
+import com.epam.model.Post;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:querycount",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostControllerQueryCountTest {
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @LocalServerPort
+    private int port;
+
+    private String baseUrl;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void setup() {
+        baseUrl = "http://localhost:" + port + "/api/v1/posts";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        restTemplate.getRestTemplate().setRequestFactory(new HttpComponentsClientHttpRequestFactory(HttpClients.createDefault()));
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void testGetAll_usesThreeStatementsForAnyPageSize() {
+        assertStatementCount(baseUrl + "?size=5", 3);
+        assertStatementCount(baseUrl + "?size=100", 3);
+        assertStatementCount(baseUrl + "?size=10&sort=title,desc&summary=true", 3);
+    }
+
+    @Test
+    void testGetAll_withFilteringUsesTwoStatementsWithIndex() {
+        assertStatementCount(baseUrl + "?tag=java&size=100", 2);
+        assertStatementCount(baseUrl + "?tag=java,spring&size=2&page=1", 2);
+    }
+
+    @Test
+    void testGetAll_withFilteringAndNonIdSortUsesThreeStatements() {
+        assertStatementCount(baseUrl + "?tag=java&size=100&sort=title", 3);
+    }
+
+    @Test
+    void testGetAll_withCursorUsesThreeStatements() {
+        ResponseEntity<String> firstPage = restTemplate.getForEntity(baseUrl + "?size=5&sort=title", String.class);
+        String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+
+        assertStatementCount(baseUrl + "?size=5&after=" + cursor, 3);
+    }
+
+    @Test
+    void testExport_usesTwoStatementsPerChunk() {
+        assertStatementCount(baseUrl + ":export", 2);
+        assertStatementCount(baseUrl + ":export?tag=java&since-id=10", 2);
+    }
+
+    @Test
+    void testGetAll_repeatedTagFilterIsServedFromCache() {
+        restTemplate.getForEntity(baseUrl + "?tag=jpa&size=3", String.class);
+
+        assertStatementCount(baseUrl + "?tag=jpa&size=3", 0);
+    }
+
+    @Test
+    void testGetOne_usesNoStatementsOnceCached() {
+        restTemplate.getForEntity(baseUrl + "/2", String.class);
+
+        assertStatementCount(baseUrl + "/2", 0);
+    }
+
+    @Test
+    void testGetOne_revalidationOfCachedPostUsesNoStatements() {
+        String eTag = restTemplate.getForEntity(baseUrl + "/1", String.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        statistics.clear();
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void testGetAll_revalidationUsesNoStatements() {
+        String eTag = restTemplate.getForEntity(baseUrl + "?tag=java", String.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        statistics.clear();
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "?tag=java", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void testUpdatePostTags_writesOnlyChangedLinks() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Post created = restTemplate.postForObject(baseUrl, new HttpEntity<>(Map.of(
+                "title", "Diff", "content", "Diff content", "tags", Set.of("java", "spring", "cloud", "jpa")), headers),
+                Post.class);
+        statistics.clear();
+
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/" + created.getId() + "/tags",
+                HttpMethod.PATCH, new HttpEntity<>(Set.of("java", "spring", "cloud", "security"), headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionRemoveCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+    }
+
+    private void assertStatementCount(String url, long expected) {
+        statistics.clear();
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).as(url).isEqualTo(expected);
+    }
+}
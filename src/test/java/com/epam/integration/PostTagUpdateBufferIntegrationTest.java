@@ -0,0 +1,109 @@
+package com.epam.integration;
+
+import com.epam.model.Post;
+import com.epam.model.Tag;
+import com.epam.service.PostTagUpdateBuffer;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The window is far longer than the test, so only the explicit flush writes the buffered tags
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:coalescing", "blog.posts.tag-updates.coalesce-window=PT1H"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostTagUpdateBufferIntegrationTest {
+    private static final String TAGS_OF_POST = """
+            SELECT t.name FROM posts_tags pt JOIN tag t ON t.id = pt.tag_id WHERE pt.post_id = ? ORDER BY t.name""";
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PostTagUpdateBuffer tagUpdateBuffer;
+
+    @BeforeAll
+    void setup() {
+        restTemplate.getRestTemplate().setRequestFactory(new HttpComponentsClientHttpRequestFactory(HttpClients.createDefault()));
+    }
+
+    @Test
+    void testUpdateTags_burstIsReadBackAndWrittenOnceOnFlush() {
+        List<String> before = tagsInDatabase(4);
+
+        patchTags(4, "draft");
+        Post updated = patchTags(4, "edited", "final");
+        ResponseEntity<Post> read = restTemplate.getForEntity("/api/v1/posts/4", Post.class);
+
+        assertThat(updated.getTags()).extracting(Tag::getName).containsExactlyInAnyOrder("edited", "final");
+        assertThat(read.getBody().getTags()).extracting(Tag::getName).containsExactlyInAnyOrder("edited", "final");
+        assertThat(read.getHeaders().getETag()).isEqualTo("\"4.2\"");
+        assertThat(tagsInDatabase(4)).isEqualTo(before);
+
+        tagUpdateBuffer.flushAll();
+
+        assertThat(tagsInDatabase(4)).containsExactly("edited", "final");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM post WHERE id = 4", Long.class)).isEqualTo(2);
+        assertThat(restTemplate.getForEntity("/api/v1/posts/4", Post.class).getHeaders().getETag()).isEqualTo("\"4.2\"");
+    }
+
+    @Test
+    void testUpdateTags_refusesBufferedUpdateOfVersionAnotherOneReplaced() {
+        String eTag = restTemplate.getForEntity("/api/v1/posts/5", Post.class).getHeaders().getETag();
+
+        ResponseEntity<Post> first = patchTagsIfMatch(5, eTag, "first");
+        ResponseEntity<Post> second = patchTagsIfMatch(5, eTag, "second");
+        ResponseEntity<Post> third = patchTagsIfMatch(5, first.getHeaders().getETag(), "third");
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(third.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(third.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+
+        tagUpdateBuffer.flushAll();
+
+        assertThat(tagsInDatabase(5)).containsExactly("third");
+        assertThat(patchTagsIfMatch(5, first.getHeaders().getETag(), "fourth").getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(patchTagsIfMatch(5, third.getHeaders().getETag(), "fourth").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private Post patchTags(long id, String... names) {
+        return patchTagsIfMatch(id, null, names).getBody();
+    }
+
+    private ResponseEntity<Post> patchTagsIfMatch(long id, String ifMatch, String... names) {
+        Set<Tag> tags = Arrays.stream(names).map(Tag::new).collect(Collectors.toSet());
+        HttpHeaders headers = new HttpHeaders();
+        if (ifMatch != null) {
+            headers.setIfMatch(ifMatch);
+        }
+
+        return restTemplate.exchange("/api/v1/posts/" + id + "/tags", HttpMethod.PATCH, new HttpEntity<>(tags, headers), Post.class);
+    }
+
+    private List<String> tagsInDatabase(long id) {
+        return jdbcTemplate.queryForList(TAGS_OF_POST, String.class, id);
+    }
+}
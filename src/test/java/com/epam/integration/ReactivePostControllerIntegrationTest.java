@@ -0,0 +1,78 @@
+package com.epam.integration;
+
+import com.epam.dto.PostView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ReactivePostControllerIntegrationTest {
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void testGetAll_streamsPageAsNdjson() throws JsonProcessingException {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/reactive/posts?size=5&page=1", String.class);
+
+        List<PostView> actual = readLines(response.getBody());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        assertThat(actual).hasSize(5);
+        assertThat(actual).extracting(PostView::id).isSorted().allMatch(id -> id > 5);
+    }
+
+    @Test
+    void testGetAll_withTags_onlyReturnsPostsHavingAllTags() throws JsonProcessingException {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/api/v1/reactive/posts?tag=java,spring&size=100", String.class);
+
+        List<PostView> actual = readLines(response.getBody());
+
+        assertThat(actual).isNotEmpty().allSatisfy(post -> assertThat(post.tags())
+                .extracting(tag -> tag.name())
+                .contains("java", "spring"));
+    }
+
+    @Test
+    void testGetOne() throws JsonProcessingException {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/reactive/posts/1", String.class);
+
+        PostView actual = objectMapper.readValue(response.getBody(), PostView.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(actual.title()).isEqualTo("Article about Java, Spring, and Cloud");
+        assertThat(actual.tags()).isNotEmpty();
+    }
+
+    @Test
+    void testGetOne_returns404() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/reactive/posts/100000", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private List<PostView> readLines(String body) throws JsonProcessingException {
+        List<PostView> posts = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            posts.add(objectMapper.readValue(line, PostView.class));
+        }
+
+        return posts;
+    }
+}
@@ -0,0 +1,173 @@
+package com.epam.integration;
+
+import com.epam.config.ReplicaRoutingDataSource;
+import com.epam.controller.PostController;
+import com.epam.model.Post;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Three separate in-memory databases stand in for a primary and its two replicas. Each replica gets its own title
+// for post 1, so an export tells which database answered it. The lag is checked explicitly, not on a schedule
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:routing-primary",
+                "blog.datasource.replicas.urls=jdbc:h2:mem:routing-replica-a;DB_CLOSE_DELAY=-1,"
+                        + "jdbc:h2:mem:routing-replica-b;DB_CLOSE_DELAY=-1",
+                "blog.datasource.replicas.lag-query=SELECT seconds FROM replication_lag",
+                "blog.datasource.replicas.max-lag=PT10S",
+                "blog.datasource.replicas.lag-check-interval=PT1H"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReplicaRoutingIntegrationTest {
+    private static final String PRIMARY_TITLE = "Article about Java, Spring, and Cloud";
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final JdbcTemplate replicaA = replica("routing-replica-a");
+
+    private final JdbcTemplate replicaB = replica("routing-replica-b");
+
+    @BeforeAll
+    void setup() {
+        seed(replicaA, "Replica A");
+        seed(replicaB, "Replica B");
+    }
+
+    @BeforeEach
+    void catchUp() {
+        replicaA.update("UPDATE replication_lag SET seconds = 0");
+        replicaB.update("UPDATE replication_lag SET seconds = 0");
+        routingDataSource.checkLag();
+    }
+
+    @Test
+    void testExport_readsFromReplicasInTurn() {
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            titles.add(firstTitle());
+        }
+
+        assertThat(titles).containsExactlyInAnyOrder("Replica A", "Replica B");
+    }
+
+    @Test
+    void testExport_skipsLaggingReplica() {
+        replicaA.update("UPDATE replication_lag SET seconds = 60");
+        routingDataSource.checkLag();
+
+        assertThat(List.of(firstTitle(), firstTitle(), firstTitle())).containsOnly("Replica B");
+    }
+
+    @Test
+    void testExport_readsFromPrimaryWhenNoReplicaIsUsable() {
+        replicaA.update("UPDATE replication_lag SET seconds = 60");
+        replicaB.execute("DROP TABLE replication_lag");
+        routingDataSource.checkLag();
+
+        try {
+            assertThat(firstTitle()).isEqualTo(PRIMARY_TITLE);
+        } finally {
+            replicaB.execute("CREATE TABLE replication_lag (seconds DOUBLE PRECISION)");
+            replicaB.update("INSERT INTO replication_lag VALUES (0)");
+        }
+    }
+
+    @Test
+    void testGetAll_readsPageItsETagLabelsOnPrimary() {
+        ResponseEntity<Post[]> response = restTemplate.getForEntity("/api/v1/posts?page=0&size=1&sort=id,asc", Post[].class);
+
+        assertThat(response.getHeaders().getETag()).isNotNull();
+        assertThat(response.getBody()[0].getTitle()).isEqualTo(PRIMARY_TITLE);
+    }
+
+    @Test
+    void testGetAll_countsPostsOnPrimary() {
+        for (JdbcTemplate replica : List.of(replicaA, replicaB)) {
+            replica.update("DELETE FROM posts_tags WHERE post_id = 2");
+            replica.update("DELETE FROM post WHERE id = 2");
+        }
+
+        ResponseEntity<Post[]> response = restTemplate.getForEntity("/api/v1/posts?count=true", Post[].class);
+
+        assertThat(response.getHeaders().getFirst(PostController.TOTAL_COUNT_HEADER))
+                .isEqualTo(String.valueOf(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM post", Long.class)));
+    }
+
+    @Test
+    void testGetOne_cachesPostAsPrimaryHasIt() {
+        restTemplate.getForEntity("/api/v1/posts/1", Post.class);
+
+        assertThat(restTemplate.getForEntity("/api/v1/posts/1", Post.class).getBody().getTitle()).isEqualTo(PRIMARY_TITLE);
+    }
+
+    @Test
+    void testGetAllByTag_cachesPageAsPrimaryHasIt() {
+        String firstByTag = "/api/v1/posts?tag=java&page=0&size=1&sort=id,asc";
+        restTemplate.getForEntity(firstByTag, Post[].class);
+
+        assertThat(restTemplate.getForEntity(firstByTag, Post[].class).getBody()[0].getTitle()).isEqualTo(PRIMARY_TITLE);
+    }
+
+    @Test
+    void testCreate_writesToPrimaryOnly() {
+        Post created = restTemplate.postForEntity("/api/v1/posts",
+                Map.of("title", "Routed write", "content", "Content"), Post.class).getBody();
+
+        String countById = "SELECT COUNT(*) FROM post WHERE id = ?";
+        assertThat(jdbcTemplate.queryForObject(countById, Long.class, created.getId())).isEqualTo(1);
+        assertThat(replicaA.queryForObject(countById, Long.class, created.getId())).isZero();
+        assertThat(replicaB.queryForObject(countById, Long.class, created.getId())).isZero();
+    }
+
+    private String firstTitle() {
+        String export = restTemplate.getForObject("/api/v1/posts:export", String.class);
+        try {
+            return objectMapper.readTree(export.lines().findFirst().orElseThrow()).get("title").asText();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JdbcTemplate replica(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static void seed(JdbcTemplate replica, String title) {
+        new ResourceDatabasePopulator(new ClassPathResource("schema-test.sql"), new ClassPathResource("data-test.sql"))
+                .execute(replica.getDataSource());
+        replica.update("UPDATE post SET title = ? WHERE id = 1", title);
+        replica.execute("CREATE TABLE replication_lag (seconds DOUBLE PRECISION)");
+        replica.update("INSERT INTO replication_lag VALUES (0)");
+    }
+}
@@ -0,0 +1,85 @@
+package com.epam.integration;
+
+import com.epam.dto.TagPostCount;
+import com.epam.model.Post;
+import com.epam.model.Tag;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:tags", "spring.r2dbc.url=r2dbc:h2:mem:///tags"})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TagControllerIntegrationTest {
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    private String baseUrl;
+
+    @BeforeAll
+    void setup() {
+        baseUrl = "http://localhost:" + port + "/api/v1";
+        CloseableHttpClient client = HttpClients.createDefault();
+        restTemplate.getRestTemplate().setRequestFactory(new HttpComponentsClientHttpRequestFactory(client));
+    }
+
+    @Test
+    void testGetTop_countsFollowPostWrites() {
+        assertThat(getTop(3)).containsExactly(
+                new TagPostCount(1, "java", 11),
+                new TagPostCount(2, "spring", 10),
+                new TagPostCount(3, "cloud", 8));
+
+        Post created = restTemplate.postForObject(baseUrl + "/posts",
+                new Post(0, "Cloud post", "Content", Set.of(new Tag("cloud"), new Tag("counted"))), Post.class);
+        restTemplate.patchForObject(baseUrl + "/posts/" + created.getId() + "/tags",
+                Set.of(new Tag("cloud"), new Tag("spring")), Post.class);
+
+        List<TagPostCount> top = getTop(100);
+        assertThat(top).extracting(TagPostCount::name, TagPostCount::posts)
+                .startsWith(
+                        tuple("java", 11L),
+                        tuple("spring", 11L),
+                        tuple("cloud", 9L));
+        assertThat(top).extracting(TagPostCount::name).doesNotContain("counted");
+
+        restTemplate.delete(baseUrl + "/posts/" + created.getId());
+
+        assertThat(getTop(3)).extracting(TagPostCount::posts).containsExactly(11L, 10L, 8L);
+    }
+
+    @Test
+    void testGetTop_rejectsOutOfRangeTop() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/tags?top=0", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(response.getBody()).contains("Top must be at least 1");
+    }
+
+    private List<TagPostCount> getTop(int top) {
+        return restTemplate.exchange(baseUrl + "/tags?top=" + top, HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<TagPostCount>>() {}).getBody();
+    }
+}
@@ -0,0 +1,52 @@
+package com.epam.integration;
+
+import com.epam.dto.PostView;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:planner", "blog.posts.tag-filter.rare-tag-ratio=1"})
+@ActiveProfiles("test")
+public class TagFilterPlannerIntegrationTest {
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void testGetAll_rareTagWithTitleSortStartsFromRarestTag() {
+        double before = rarestFirstCount();
+
+        assertThat(getAll("tag=cloudnative,microservices&sort=title,desc"))
+                .extracting(PostView::id).containsExactly(14L, 9L);
+        assertThat(getAll("tag=cloudnative,microservices,cloud&sort=title"))
+                .extracting(PostView::id).containsExactly(9L);
+
+        assertThat(rarestFirstCount()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void testGetAll_unknownTagReturnsNoPosts() {
+        assertThat(getAll("tag=java,unknown&sort=title")).isEmpty();
+    }
+
+    private List<PostView> getAll(String query) {
+        return restTemplate.exchange("/api/v1/posts?" + query, HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<PostView>>() {}).getBody();
+    }
+
+    private double rarestFirstCount() {
+        return meterRegistry.counter("blog.posts.tag.filter", "strategy", "rarest_first").count();
+    }
+}
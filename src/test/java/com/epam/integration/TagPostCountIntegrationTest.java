@@ -0,0 +1,28 @@
+package com.epam.integration;
+
+import com.epam.repository.TagPostCountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:stripes")
+@ActiveProfiles("test")
+public class TagPostCountIntegrationTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testDataScript_createsAllStripesOfEveryTag() {
+        List<Long> stripesPerTag = jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM tag_post_count GROUP BY tag_id", Long.class);
+        long tags = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tag", Long.class);
+
+        assertThat(stripesPerTag).hasSize((int) tags).containsOnly((long) TagPostCountRepository.STRIPES);
+    }
+}
@@ -1,32 +1,61 @@
 package com.epam.unit.controller;
 
 import com.epam.controller.PostController;
+import com.epam.dto.PostBatchItem;
+import com.epam.dto.PostBatchReport;
+import com.epam.dto.PostView;
+import com.epam.dto.TagView;
+import com.epam.exception.InvalidCursorException;
 import com.epam.exception.PostNotFoundException;
+import com.epam.exception.PostVersionConflictException;
+import com.epam.index.PostResponseCache;
 import com.epam.model.Post;
 import com.epam.model.Tag;
+import com.epam.pagination.PostCursor;
+import com.epam.service.PostBatchService;
+import com.epam.service.PostExportService;
 import com.epam.service.PostService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -36,47 +65,246 @@ public class PostControllerTest {
     PostController postController;
     @Mock
     PostService postService;
+    @Mock
+    PostBatchService postBatchService;
+    @Mock
+    PostExportService postExportService;
+    @Spy
+    PostResponseCache postResponseCache = new PostResponseCache(
+            new ObjectMapper(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), DataSize.ofBytes(100));
+
+    MockHttpServletRequest servletRequest;
+    MockHttpServletResponse servletResponse;
+    WebRequest webRequest;
+
+    @BeforeEach
+    void setup() {
+        servletRequest = new MockHttpServletRequest("GET", "/api/v1/posts");
+        servletResponse = new MockHttpServletResponse();
+        webRequest = new ServletWebRequest(servletRequest, servletResponse);
+    }
 
     @Test
     void testGetAll_returnsListOfPosts() {
         Set<String> requestTags  = Set.of("Tag");
-        List<Post> expectedList = getListOfTestPosts();
+        List<PostView> expectedList = getListOfTestPosts();
 
-        when(postService.findByAllTags(requestTags, Pageable.unpaged())).thenReturn(expectedList);
+        when(postService.findByAllTags(requestTags, Pageable.unpaged(), false)).thenReturn(expectedList);
 
-        ResponseEntity<List<Post>> response = postController.getAll(requestTags, Pageable.unpaged());
+        ResponseEntity<List<PostView>> response = postController.getAll(requestTags, null, false, false, Pageable.unpaged(), webRequest);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(expectedList);
 
-        verify(postService).findByAllTags(requestTags, Pageable.unpaged());
+        verify(postService).listingVersion(requestTags);
+        verify(postService).findByAllTags(requestTags, Pageable.unpaged(), false);
         verifyNoMoreInteractions(postService);
     }
 
     @Test
     void testGetAll_returnsEmptyListOfPosts() {
-        when(postService.findAll(Pageable.unpaged())).thenReturn(new ArrayList<>());
+        when(postService.findAll(Pageable.unpaged(), false)).thenReturn(new ArrayList<>());
 
-        ResponseEntity<List<Post>> response = postController.getAll(null, Pageable.unpaged());
+        ResponseEntity<List<PostView>> response = postController.getAll(null, null, false, false, Pageable.unpaged(), webRequest);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEmpty();
 
-        verify(postService).findAll(Pageable.unpaged());
+        verify(postService).listingVersion(Set.of());
+        verify(postService).findAll(Pageable.unpaged(), false);
         verifyNoMoreInteractions(postService);
     }
 
     @Test
-    void testGetOne_returnsOkResponseEntity() {
+    void testGetAll_withCountReturnsTotalCountHeader() {
+        Set<String> requestTags = Set.of("Tag");
+
+        when(postService.findByAllTags(requestTags, Pageable.unpaged(), false)).thenReturn(getListOfTestPosts());
+        when(postService.count(requestTags)).thenReturn(42L);
+
+        ResponseEntity<List<PostView>> response = postController.getAll(requestTags, null, true, false, Pageable.unpaged(), webRequest);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(PostController.TOTAL_COUNT_HEADER)).isEqualTo("42");
+
+        verify(postService).count(requestTags);
+    }
+
+    @Test
+    void testGetAll_returnsNextCursorForFullPage() {
+        List<PostView> expectedList = getListOfTestPosts();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("title"));
+
+        when(postService.findAll(pageRequest, true)).thenReturn(expectedList);
+
+        ResponseEntity<List<PostView>> response = postController.getAll(null, null, false, true, pageRequest, webRequest);
+        PostCursor nextCursor = PostCursor.decode(response.getHeaders().getFirst(PostController.NEXT_CURSOR_HEADER));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(nextCursor).isEqualTo(new PostCursor("title", Sort.Direction.ASC, 3, "Title 3"));
+    }
+
+    @Test
+    void testGetAll_pagesInIdOrderWhenNoSortIsGiven() {
+        List<PostView> expectedList = getListOfTestPosts();
+        Set<String> requestTags = Set.of("Tag");
+        PageRequest byId = PageRequest.of(0, 3, Sort.by("id"));
+
+        when(postService.findByAllTags(requestTags, byId, false)).thenReturn(expectedList);
+
+        ResponseEntity<List<PostView>> response = postController.getAll(requestTags, null, false, false, PageRequest.of(0, 3), webRequest);
+        PostCursor nextCursor = PostCursor.decode(response.getHeaders().getFirst(PostController.NEXT_CURSOR_HEADER));
+
+        assertThat(response.getBody()).isEqualTo(expectedList);
+        assertThat(nextCursor).isEqualTo(new PostCursor("id", Sort.Direction.ASC, 3, null));
+        verify(postService).findByAllTags(requestTags, byId, false);
+    }
+
+    @Test
+    void testGetAll_withCursorReturnsPostsAfterIt() {
+        Set<String> requestTags = Set.of("Tag");
+        PostCursor cursor = new PostCursor("id", Sort.Direction.DESC, 10, null);
+        List<PostView> expectedList = getListOfTestPosts();
+
+        when(postService.findAfter(requestTags, cursor, 5, false)).thenReturn(expectedList);
+
+        ResponseEntity<List<PostView>> response = postController.getAll(requestTags, cursor.encode(), false, false, PageRequest.of(4, 5), webRequest);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(expectedList);
+        assertThat(response.getHeaders().containsKey(PostController.NEXT_CURSOR_HEADER)).isFalse();
+
+        verify(postService).listingVersion(requestTags);
+        verify(postService).findAfter(requestTags, cursor, 5, false);
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void testGetAll_withMalformedCursorThrowsInvalidCursorException() {
+        Assertions.assertThrows(InvalidCursorException.class,
+                () -> postController.getAll(null, "not a cursor", false, false, PageRequest.of(0, 5), webRequest));
+
+        verify(postService).listingVersion(Set.of());
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void testGetAll_returnsNotModifiedWithoutLoadingPosts() {
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc.7\"");
+
+        when(postService.listingVersion(Set.of())).thenReturn("abc.7");
+
+        ResponseEntity<List<PostView>> response = postController.getAll(null, null, false, false, Pageable.unpaged(), webRequest);
+
+        assertThat(response).isNull();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+        verify(postService).listingVersion(Set.of());
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void testSearch_returnsRankedPosts() {
+        List<PostView> expectedList = getListOfTestPosts();
+        PageRequest pageRequest = PageRequest.of(0, 5);
+
+        when(postService.search("java", Set.of(), pageRequest, false)).thenReturn(expectedList);
+
+        ResponseEntity<List<PostView>> response = postController.search("java", null, false, pageRequest);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(expectedList);
+    }
+
+    @Test
+    void testGetOne_returnsOkResponseEntity() throws IOException {
         long testId = 1;
         when(postService.findById(testId)).thenReturn(getTestPost());
 
-        ResponseEntity<Post> response = postController.getOne(testId);
+        ResponseEntity<byte[]> response = postController.getOne(testId, webRequest);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEqualTo(getTestPost());
+        assertThat(new ObjectMapper().readValue(response.getBody(), Post.class)).isEqualTo(getTestPost());
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1.0\"");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+        verify(postService).findById(testId);
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void testGetOne_servesCachedBytesWithoutLoadingPostAgain() {
+        long testId = 1;
+        when(postService.findById(testId)).thenReturn(getTestPost());
+
+        byte[] first = postController.getOne(testId, webRequest).getBody();
+        byte[] second = postController.getOne(testId, webRequest).getBody();
+
+        assertThat(second).isSameAs(first);
 
         verify(postService).findById(testId);
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void testGetOne_sendsPrecompressedBodyToGzipClients() throws IOException {
+        long testId = 1;
+        Post post = new Post(testId, "Title", "Content ".repeat(100), new HashSet<>());
+        servletRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8");
+
+        when(postService.findById(testId)).thenReturn(post);
+
+        ResponseEntity<byte[]> response = postController.getOne(testId, webRequest);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        try (InputStream json = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(new ObjectMapper().readValue(json, Post.class)).isEqualTo(post);
+        }
+    }
+
+    @Test
+    void testGetOne_sendsIdentityBodyWhenGzipIsRefused() {
+        long testId = 1;
+        servletRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity");
+
+        when(postService.findById(testId)).thenReturn(new Post(testId, "Title", "Content ".repeat(100), new HashSet<>()));
+
+        ResponseEntity<byte[]> response = postController.getOne(testId, webRequest);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void testGetOne_returnsNotModifiedWithoutLoadingPost() {
+        long testId = 1;
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1.3\"");
+
+        when(postService.findVersion(testId)).thenReturn(3L);
+
+        ResponseEntity<byte[]> response = postController.getOne(testId, webRequest);
+
+        assertThat(response).isNull();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+        verify(postService).findVersion(testId);
+        verifyNoMoreInteractions(postService);
+    }
+
+    @Test
+    void testGetOne_revalidatesCachedPostWithoutVersionLookup() {
+        long testId = 1;
+        when(postService.findById(testId)).thenReturn(getTestPost());
+        postController.getOne(testId, webRequest);
+
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1.0\"");
+        ResponseEntity<byte[]> response = postController.getOne(testId, webRequest);
+
+        assertThat(response).isNull();
+        assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+        verify(postService).findById(testId);
+        verifyNoMoreInteractions(postService);
     }
 
     @Test
@@ -84,7 +312,7 @@ public class PostControllerTest {
         long testId = 1;
         when(postService.findById(testId)).thenThrow(PostNotFoundException.class);
 
-        Assertions.assertThrows(PostNotFoundException.class, () -> postController.getOne(testId));
+        Assertions.assertThrows(PostNotFoundException.class, () -> postController.getOne(testId, webRequest));
 
         verify(postService).findById(testId);
     }
@@ -118,14 +346,39 @@ public class PostControllerTest {
         );
         Post expected = getUpdatedPost();
 
-        when(postService.updateTags(testId, requestBody)).thenReturn(expected);
+        when(postService.updateTags(testId, requestBody, OptionalLong.empty())).thenReturn(expected);
 
-        ResponseEntity<Post> response = postController.updatePostTags(testId, requestBody);
+        ResponseEntity<Post> response = postController.updatePostTags(testId, requestBody, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(expected);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1.0\"");
+
+        verify(postService).updateTags(testId, requestBody, OptionalLong.empty());
+    }
+
+    @Test
+    void testUpdatePostTags_passesVersionFromIfMatch() {
+        long testId = 1;
+        Set<Tag> requestBody = Set.of(new Tag(2, "Tag 2", new HashSet<>()));
+        Post expected = getUpdatedPost();
+        expected.setVersion(4);
+
+        when(postService.updateTags(testId, requestBody, OptionalLong.of(3))).thenReturn(expected);
 
-        verify(postService).updateTags(testId, requestBody);
+        ResponseEntity<Post> response = postController.updatePostTags(testId, requestBody, "W/\"1.2\", \"1.3\"");
+
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1.4\"");
+    }
+
+    @Test
+    void testUpdatePostTags_rejectsIfMatchOfAnotherPost() {
+        Set<Tag> requestBody = Set.of(new Tag(2, "Tag 2", new HashSet<>()));
+
+        Assertions.assertThrows(PostVersionConflictException.class,
+                () -> postController.updatePostTags(1, requestBody, "\"11.3\""));
+
+        verifyNoInteractions(postService);
     }
 
     @Test
@@ -141,6 +394,21 @@ public class PostControllerTest {
         verify(postService).delete(testId);
     }
 
+    @Test
+    void testCreatePosts_returnsBatchReport() throws IOException {
+        InputStream body = new ByteArrayInputStream("[]".getBytes());
+        PostBatchReport expected = PostBatchReport.of(List.of(PostBatchItem.created(0, 1000)));
+
+        when(postBatchService.importPosts(body)).thenReturn(expected);
+
+        ResponseEntity<PostBatchReport> response = postController.createPosts(body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(expected);
+
+        verify(postBatchService).importPosts(body);
+    }
+
     private Post getTestPost() {
         return new Post(1, "Title", "Content", Set.of(
                 new Tag(1, "Tag", new HashSet<>())));
@@ -153,14 +421,11 @@ public class PostControllerTest {
                         new Tag(3, "Tag 3", new HashSet<>())));
     }
 
-    private List<Post> getListOfTestPosts() {
+    private List<PostView> getListOfTestPosts() {
         return List.of(
-                new Post(1, "Title 1", "Content 1", Set.of(
-                        new Tag(1, "Tag 1", new HashSet<>()))),
-                new Post(2, "Title 2", "Content 2", Set.of(
-                        new Tag(2, "Tag 2", new HashSet<>()))),
-                new Post(3, "Title 3", "Content 3", Set.of(
-                        new Tag(3, "Tag 3", new HashSet<>())))
+                new PostView(1, "Title 1", "Content 1", List.of(new TagView(1, "Tag 1"))),
+                new PostView(2, "Title 2", "Content 2", List.of(new TagView(2, "Tag 2"))),
+                new PostView(3, "Title 3", "Content 3", List.of(new TagView(3, "Tag 3")))
         );
     }
 }
@@ -0,0 +1,41 @@
+package com.epam.unit.index;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.index.PostChangeCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostChangeCounterTest {
+    PostChangeCounter postChangeCounter = new PostChangeCounter();
+
+    @Test
+    void testVersionOf_changesOnlyForAffectedTags() {
+        String all = postChangeCounter.versionOf(Set.of());
+        String java = postChangeCounter.versionOf(Set.of("java"));
+        String cloud = postChangeCounter.versionOf(Set.of("cloud"));
+
+        postChangeCounter.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.TAGS_UPDATED, 1, Set.of("java"), Set.of("java", "spring")));
+
+        assertThat(postChangeCounter.versionOf(Set.of())).isNotEqualTo(all);
+        assertThat(postChangeCounter.versionOf(Set.of("java"))).isNotEqualTo(java);
+        assertThat(postChangeCounter.versionOf(Set.of("cloud"))).isEqualTo(cloud);
+    }
+
+    @Test
+    void testVersionOf_changesForEveryEventOnMultipleTags() {
+        String before = postChangeCounter.versionOf(Set.of("java", "spring"));
+
+        postChangeCounter.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.DELETED, 1, Set.of("java"), Set.of()));
+        String afterFirst = postChangeCounter.versionOf(Set.of("java", "spring"));
+        postChangeCounter.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.CREATED, 2, Set.of(), Set.of("spring")));
+
+        assertThat(afterFirst).isNotEqualTo(before);
+        assertThat(postChangeCounter.versionOf(Set.of("java", "spring"))).isNotIn(before, afterFirst);
+    }
+}
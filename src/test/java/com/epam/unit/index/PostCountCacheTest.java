@@ -0,0 +1,64 @@
+package com.epam.unit.index;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.index.PostCountCache;
+import com.epam.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostCountCacheTest {
+    PostCountCache postCountCache;
+
+    @Mock
+    PostRepository postRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        postCountCache = new PostCountCache(postRepository, transactionManager);
+    }
+
+    @Test
+    void testGet_countsOnceAndFollowsCommittedChanges() {
+        when(postRepository.count()).thenReturn(10L);
+
+        assertThat(postCountCache.get()).isEqualTo(10);
+        postCountCache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, 11, Set.of(), Set.of()));
+        postCountCache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, 12, Set.of(), Set.of()));
+        postCountCache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.DELETED, 1, Set.of(), Set.of()));
+
+        assertThat(postCountCache.get()).isEqualTo(11);
+        verify(postRepository).count();
+    }
+
+    @Test
+    void testRefresh_replacesDriftedCount() {
+        when(postRepository.count()).thenReturn(10L, 14L);
+
+        postCountCache.get();
+        // Counted by the query already, the listener still adds it
+        postCountCache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, 11, Set.of(), Set.of()));
+        postCountCache.refresh();
+
+        assertThat(postCountCache.get()).isEqualTo(14);
+        verify(postRepository, times(2)).count();
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
@@ -0,0 +1,87 @@
+package com.epam.unit.index;
+
+import com.epam.dto.PostRow;
+import com.epam.event.PostChangedEvent;
+import com.epam.exception.SearchIndexNotReadyException;
+import com.epam.index.PostSearchIndex;
+import com.epam.repository.PostRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostSearchIndexTest {
+    PostSearchIndex postSearchIndex;
+
+    @Mock
+    PostRepository postRepository;
+
+    @BeforeEach
+    void setup() {
+        postSearchIndex = new PostSearchIndex(postRepository, new SyncTaskExecutor());
+    }
+
+    @Test
+    void testSearch_throwsBeforeRebuild() {
+        assertThat(postSearchIndex.isReady()).isFalse();
+        Assertions.assertThrows(SearchIndexNotReadyException.class,
+                () -> postSearchIndex.search("java", id -> true, 0, 10));
+    }
+
+    @Test
+    void testSearch_ranksTitleMatchesFirst() {
+        when(postRepository.findRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(getTestRows());
+
+        postSearchIndex.rebuildInBackground();
+
+        assertThat(postSearchIndex.isReady()).isTrue();
+        assertThat(postSearchIndex.search("Java", id -> true, 0, 10)).containsExactly(1L, 2L);
+        assertThat(postSearchIndex.search("spring java", id -> true, 0, 10)).containsExactly(2L, 1L, 3L);
+        assertThat(postSearchIndex.search("kotlin!", id -> true, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void testSearch_appliesFilterAndPaging() {
+        when(postRepository.findRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(getTestRows());
+
+        postSearchIndex.rebuild();
+
+        assertThat(postSearchIndex.search("spring java", id -> id != 2, 0, 10)).containsExactly(1L, 3L);
+        assertThat(postSearchIndex.search("spring java", id -> true, 1, 1)).containsExactly(1L);
+    }
+
+    @Test
+    void testOnPostChanged_keepsIndexInSync() {
+        when(postRepository.findRowsAfterId(eq(0L), any(Pageable.class))).thenReturn(getTestRows());
+
+        postSearchIndex.rebuild();
+        postSearchIndex.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.CREATED, 4, Set.of(), Set.of(), "Kotlin coroutines", "Kotlin on the JVM"));
+        postSearchIndex.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.DELETED, 1, Set.of(), Set.of()));
+
+        assertThat(postSearchIndex.search("kotlin", id -> true, 0, 10)).containsExactly(4L);
+        assertThat(postSearchIndex.search("java", id -> true, 0, 10)).containsExactly(2L);
+    }
+
+    private List<PostRow> getTestRows() {
+        return List.of(
+                new PostRow(1, "Java basics", "Learn the language"),
+                new PostRow(2, "Spring for beginners", "Spring runs on Java"),
+                new PostRow(3, "Cloud", "Deploying Spring apps")
+        );
+    }
+}
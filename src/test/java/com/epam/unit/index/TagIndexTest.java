@@ -0,0 +1,109 @@
+package com.epam.unit.index;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.index.PostTagLink;
+import com.epam.index.TagIndex;
+import com.epam.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TagIndexTest {
+    TagIndex tagIndex;
+
+    @Mock
+    PostRepository postRepository;
+
+    @BeforeEach
+    void setup() {
+        tagIndex = new TagIndex(postRepository, new SyncTaskExecutor());
+    }
+
+    @Test
+    void testFindPostIdsWithAllTags_returnsEmptyBeforeRebuild() {
+        assertThat(tagIndex.isReady()).isFalse();
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("java"))).isEmpty();
+    }
+
+    @Test
+    void testFindPostIdsWithAllTags_returnsIntersection() {
+        when(postRepository.findTagLinksAfter(eq(0L), eq(0L), any(Pageable.class))).thenReturn(getTestLinks());
+
+        tagIndex.rebuildInBackground();
+
+        assertThat(tagIndex.isReady()).isTrue();
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("java", "spring")))
+                .contains(Roaring64Bitmap.bitmapOf(1, 2));
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("java", "unknown")))
+                .contains(new Roaring64Bitmap());
+    }
+
+    @Test
+    void testOnPostChanged_keepsIndexInSync() {
+        when(postRepository.findTagLinksAfter(eq(0L), eq(0L), any(Pageable.class))).thenReturn(getTestLinks());
+
+        tagIndex.rebuild();
+        tagIndex.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.TAGS_UPDATED, 2, Set.of("java", "spring"), Set.of("spring", "cloud")));
+        tagIndex.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.CREATED, 4, Set.of(), Set.of("java", "spring")));
+        tagIndex.onPostChanged(new PostChangedEvent(
+                PostChangedEvent.Type.DELETED, 3, Set.of("java"), Set.of()));
+
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("java"))).contains(Roaring64Bitmap.bitmapOf(1, 4));
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("spring", "cloud"))).contains(Roaring64Bitmap.bitmapOf(2));
+    }
+
+    @Test
+    void testFindPostIdsWithAllTags_doesNotExposeInternalBitmaps() {
+        when(postRepository.findTagLinksAfter(eq(0L), eq(0L), any(Pageable.class))).thenReturn(getTestLinks());
+
+        tagIndex.rebuild();
+        Optional<Roaring64Bitmap> result = tagIndex.findPostIdsWithAllTags(Set.of("java"));
+        result.get().removeLong(1);
+
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("java"))).contains(Roaring64Bitmap.bitmapOf(1, 2, 3));
+    }
+
+    @Test
+    void testRebuild_continuesAfterLastLinkOfFullBatch() {
+        List<PostTagLink> firstBatch = LongStream.rangeClosed(1, 1000)
+                .mapToObj(postId -> new PostTagLink(postId, 1, "java"))
+                .toList();
+        when(postRepository.findTagLinksAfter(eq(0L), eq(0L), any(Pageable.class))).thenReturn(firstBatch);
+        when(postRepository.findTagLinksAfter(eq(1000L), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(new PostTagLink(1000, 2, "spring")));
+
+        tagIndex.rebuild();
+
+        assertThat(tagIndex.findPostCounts(Set.of("java", "spring"))).contains(Map.of("java", 1000L, "spring", 1L));
+        assertThat(tagIndex.findPostIdsWithAllTags(Set.of("java", "spring"))).contains(Roaring64Bitmap.bitmapOf(1000));
+    }
+
+    private List<PostTagLink> getTestLinks() {
+        return List.of(
+                new PostTagLink(1, 1, "java"),
+                new PostTagLink(1, 2, "spring"),
+                new PostTagLink(2, 1, "java"),
+                new PostTagLink(2, 2, "spring"),
+                new PostTagLink(3, 1, "java")
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.epam.unit.pagination;
+
+import com.epam.dto.PostView;
+import com.epam.exception.InvalidCursorException;
+import com.epam.pagination.PostCursor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostCursorTest {
+    @Test
+    void testEncodeDecode_roundTripsTitleWithSeparators() {
+        PostCursor cursor = new PostCursor("title", Sort.Direction.DESC, 7, "Java: tips:and tricks");
+
+        assertThat(PostCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void testAfter_usesLastPostAndSortOrder() {
+        PostView post = new PostView(4, "Title", "Content", List.of());
+
+        assertThat(PostCursor.after(post, Sort.unsorted()))
+                .contains(new PostCursor("id", Sort.Direction.ASC, 4, null));
+        assertThat(PostCursor.after(post, Sort.by("title").descending()))
+                .contains(new PostCursor("title", Sort.Direction.DESC, 4, "Title"));
+        assertThat(PostCursor.after(post, Sort.by("content"))).isEmpty();
+    }
+
+    @Test
+    void testDecode_throwsInvalidCursorException() {
+        String unsupportedProperty = new PostCursor("content", Sort.Direction.ASC, 1, "x").encode();
+
+        Assertions.assertThrows(InvalidCursorException.class, () -> PostCursor.decode("%%%"));
+        Assertions.assertThrows(InvalidCursorException.class, () -> PostCursor.decode(unsupportedProperty));
+    }
+}
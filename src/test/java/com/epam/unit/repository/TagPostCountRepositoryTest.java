@@ -0,0 +1,74 @@
+package com.epam.unit.repository;
+
+import com.epam.repository.TagPostCountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TagPostCountRepositoryTest {
+    TagPostCountRepository tagPostCountRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        tagPostCountRepository = new TagPostCountRepository(jdbcTemplate, namedParameterJdbcTemplate);
+    }
+
+    @Test
+    void testAdd_insertsMissingStripe() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}});
+
+        tagPostCountRepository.add(new TreeMap<>(Map.of(1L, 1)));
+
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        verify(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testAdd_addsToStripeThatConcurrentTransactionInserted() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{0}}, new int[][]{{1}});
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenThrow(new DuplicateKeyException("tag_post_count"));
+
+        tagPostCountRepository.add(new TreeMap<>(Map.of(1L, 1)));
+
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testAdd_leavesExistingStripesAlone() {
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 1}});
+
+        tagPostCountRepository.add(new TreeMap<>(Map.of(1L, 1, 2L, -1)));
+
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+}
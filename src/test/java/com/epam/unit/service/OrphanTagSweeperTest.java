@@ -0,0 +1,110 @@
+package com.epam.unit.service;
+
+import com.epam.dto.TagView;
+import com.epam.model.Tag;
+import com.epam.service.OrphanTagSweeper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OrphanTagSweeperTest {
+    private static final Duration GRACE_PERIOD = Duration.ofMinutes(10);
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    OrphanTagSweeper orphanTagSweeper;
+
+    @Mock
+    NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    Clock clock;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    EntityManagerFactory entityManagerFactory;
+
+    Cache<String, Long> tagIdCache = Caffeine.newBuilder().build();
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        orphanTagSweeper = new OrphanTagSweeper(jdbcTemplate, tagIdCache, entityManagerFactory, meterRegistry, clock, GRACE_PERIOD, 1, 100);
+    }
+
+    @Test
+    void testSweep_deletesTagsOnlyOnceGracePeriodHasPassed() {
+        tagIdCache.put("orphan", 1L);
+
+        when(clock.instant()).thenReturn(START, START.plus(GRACE_PERIOD));
+        when(jdbcTemplate.query(anyString(), anyMap(), any(RowMapper.class))).thenReturn(List.of(new TagView(1, "orphan")));
+        // Writes must stop getting the id from the cache before the row is gone
+        when(jdbcTemplate.update(anyString(), eq(Map.of("ids", List.of(1L))))).thenAnswer(invocation -> {
+            assertThat(tagIdCache.getIfPresent("orphan")).isNull();
+            return 1;
+        });
+
+        assertThat(orphanTagSweeper.sweep()).isZero();
+        assertThat(tagIdCache.getIfPresent("orphan")).isEqualTo(1L);
+
+        assertThat(orphanTagSweeper.sweep()).isEqualTo(1);
+        assertThat(tagIdCache.getIfPresent("orphan")).isNull();
+        verify(entityManagerFactory.getCache(), times(2)).evict(Tag.class, 1L);
+        assertThat(meterRegistry.counter("blog.tags.deleted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSweep_restartsGracePeriodForTagsAttachedInBetween() {
+        when(clock.instant()).thenReturn(START, START.plus(GRACE_PERIOD.dividedBy(2)), START.plus(GRACE_PERIOD));
+        when(jdbcTemplate.query(anyString(), anyMap(), any(RowMapper.class)))
+                .thenReturn(List.of(new TagView(1, "reused")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new TagView(1, "reused")));
+
+        orphanTagSweeper.sweep();
+        orphanTagSweeper.sweep();
+
+        assertThat(orphanTagSweeper.sweep()).isZero();
+        verify(jdbcTemplate, never()).update(anyString(), anyMap());
+    }
+
+    @Test
+    void testSweep_skipsBatchRefusedByForeignKey() {
+        when(clock.instant()).thenReturn(START, START.plus(GRACE_PERIOD));
+        when(jdbcTemplate.query(anyString(), anyMap(), any(RowMapper.class)))
+                .thenReturn(List.of(new TagView(1, "attached"), new TagView(2, "orphan")));
+        when(jdbcTemplate.update(anyString(), eq(Map.of("ids", List.of(1L)))))
+                .thenThrow(new DataIntegrityViolationException("posts_tags references tag"));
+        when(jdbcTemplate.update(anyString(), eq(Map.of("ids", List.of(2L))))).thenReturn(1);
+
+        orphanTagSweeper.sweep();
+
+        assertThat(orphanTagSweeper.sweep()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.epam.unit.service;
+
+import com.epam.dto.PostBatchItem;
+import com.epam.dto.PostBatchReport;
+import com.epam.exception.InvalidBatchException;
+import com.epam.model.Post;
+import com.epam.service.PostBatchService;
+import com.epam.service.PostService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostBatchServiceTest {
+    PostBatchService postBatchService;
+
+    @Mock
+    PostService postService;
+
+    @Mock
+    EntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        postBatchService = new PostBatchService(postService, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 5);
+        ReflectionTestUtils.setField(postBatchService, "entityManager", entityManager);
+    }
+
+    @Test
+    void testImportPosts_savesInChunksAndReportsEveryItem() throws IOException {
+        when(postService.createAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+
+        PostBatchReport report = postBatchService.importPosts(json("""
+                [{"title": "A", "content": "a", "tags": ["x"]},
+                 {"title": "", "content": "b"},
+                 {"title": "C", "content": "c"},
+                 {"title": "D", "content": "d"}]"""));
+
+        assertThat(report.created()).isEqualTo(3);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.items()).extracting(PostBatchItem::index).containsExactly(0, 1, 2, 3);
+        assertThat(report.items().get(1).errors()).containsExactly("Title cannot be empty");
+
+        verify(postService, times(2)).createAll(anyList());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void testImportPosts_reportsWholeChunkWhenSaveFails() throws IOException {
+        when(postService.createAll(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        PostBatchReport report = postBatchService.importPosts(json("""
+                [{"title": "A", "content": "a"}, {"title": "B", "content": "b"}]"""));
+
+        assertThat(report.created()).isZero();
+        assertThat(report.items()).extracting(PostBatchItem::errors)
+                .containsOnly(List.of("Chunk could not be saved"));
+    }
+
+    @Test
+    void testImportPosts_stopsAtMalformedJson() throws IOException {
+        when(postService.createAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+
+        PostBatchReport report = postBatchService.importPosts(json("""
+                [{"title": "A", "content": "a"}, {"title": "B" "content": "b"}]"""));
+
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.items().get(1).errors().get(0)).startsWith("Malformed JSON");
+    }
+
+    @Test
+    void testImportPosts_limitsNumberOfItems() throws IOException {
+        when(postService.createAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+
+        PostBatchReport report = postBatchService.importPosts(json("[" + "{\"title\": \"A\", \"content\": \"a\"},".repeat(6)
+                + "{\"title\": \"A\", \"content\": \"a\"}]"));
+
+        assertThat(report.created()).isEqualTo(5);
+        assertThat(report.items().get(5).errors()).containsExactly("Batch is limited to 5 posts");
+    }
+
+    @Test
+    void testImportPosts_rejectsNonArrayBody() {
+        Assertions.assertThrows(InvalidBatchException.class,
+                () -> postBatchService.importPosts(json("{\"title\": \"A\"}")));
+    }
+
+    private InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Post> assignIds(List<Post> posts) {
+        posts.forEach(post -> post.setId(1000 + post.getTitle().hashCode()));
+        return posts;
+    }
+}
@@ -0,0 +1,91 @@
+package com.epam.unit.service;
+
+import com.epam.dto.PostTagRow;
+import com.epam.model.Post;
+import com.epam.repository.PostRepository;
+import com.epam.service.PostExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostExportServiceTest {
+    PostExportService postExportService;
+
+    @Mock
+    PostRepository postRepository;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    Session session;
+
+    @BeforeEach
+    void setup() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        postExportService = new PostExportService(postRepository, new ObjectMapper(), 2);
+        ReflectionTestUtils.setField(postExportService, "entityManager", entityManager);
+    }
+
+    @Test
+    void testExport_writesOneLinePerPostAndLoadsTagsPerChunk() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        when(postRepository.streamAfterId(Set.of(), 0, 2)).thenReturn(Stream.of(
+                getTestPost(1), getTestPost(2), getTestPost(3)));
+        when(postRepository.findTagRowsByPostIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new PostTagRow(1, 2, "spring"), new PostTagRow(1, 1, "java")));
+        when(postRepository.findTagRowsByPostIdIn(List.of(3L))).thenReturn(List.of());
+
+        long exported = postExportService.export(Set.of(), 0, output);
+
+        assertThat(exported).isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"id":1,"title":"Title 1","content":"Content","tags":[{"id":1,"name":"java"},{"id":2,"name":"spring"}]}
+                {"id":2,"title":"Title 2","content":"Content","tags":[]}
+                {"id":3,"title":"Title 3","content":"Content","tags":[]}
+                """);
+
+        verify(entityManager, times(3)).detach(any(Post.class));
+        verify(session).setCacheMode(CacheMode.IGNORE);
+        verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void testExport_writesNothingForEmptyStream() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        when(postRepository.streamAfterId(Set.of("java"), 10, 2)).thenReturn(Stream.empty());
+
+        long exported = postExportService.export(Set.of("java"), 10, output);
+
+        assertThat(exported).isZero();
+        assertThat(output.size()).isZero();
+    }
+
+    private Post getTestPost(long id) {
+        return new Post(id, "Title " + id, "Content", Set.of());
+    }
+}
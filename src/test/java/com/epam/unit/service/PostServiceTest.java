@@ -1,28 +1,59 @@
 package com.epam.unit.service;
 
+import com.epam.dto.PostRow;
+import com.epam.dto.PostTagRow;
+import com.epam.dto.PostView;
+import com.epam.dto.TagView;
+import com.epam.event.PostChangedEvent;
 import com.epam.exception.PostNotFoundException;
+import com.epam.exception.PostVersionConflictException;
+import com.epam.index.PostChangeCounter;
+import com.epam.index.PostCountCache;
+import com.epam.index.PostSearchIndex;
+import com.epam.index.TagFilterResultCache;
+import com.epam.index.TagIndex;
 import com.epam.model.Post;
 import com.epam.model.Tag;
+import com.epam.pagination.PostCursor;
 import com.epam.repository.PostRepository;
 import com.epam.service.PostService;
+import com.epam.service.PostTagUpdateBuffer;
+import com.epam.service.TagFilterPlanner;
+import com.epam.service.TagFilterPlanner.Strategy;
 import com.epam.service.TagService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -40,18 +71,242 @@ public class PostServiceTest {
     @Mock
     PostRepository postRepository;
 
+    @Mock
+    TagIndex tagIndex;
+
+    @Mock
+    PostCountCache postCountCache;
+
+    @Mock
+    PostChangeCounter postChangeCounter;
+
+    @Mock
+    PostSearchIndex postSearchIndex;
+
+    @Mock
+    TagFilterPlanner tagFilterPlanner;
+
+    @Mock
+    TagFilterResultCache tagFilterResultCache;
+
+    @Mock
+    PostTagUpdateBuffer tagUpdateBuffer;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void testFindAll_loadsPageOfIdsAsViews() {
+        Pageable pageRequest = PageRequest.of(0, 2, Sort.by("title"));
+
+        when(postRepository.findIds(pageRequest)).thenReturn(new SliceImpl<>(List.of(7L, 2L)));
+        when(postRepository.findRowsByIdIn(List.of(7L, 2L))).thenReturn(List.of(
+                new PostRow(2, "B", "Content"),
+                new PostRow(7, "A", "Content")));
+        when(postRepository.findTagRowsByPostIdIn(List.of(7L, 2L))).thenReturn(List.of(
+                new PostTagRow(7, 2, "spring"),
+                new PostTagRow(7, 1, "java"),
+                new PostTagRow(2, 1, "java")));
+
+        List<PostView> actual = postService.findAll(pageRequest, false);
+
+        assertThat(actual).containsExactly(
+                new PostView(7, "A", "Content", List.of(new TagView(1, "java"), new TagView(2, "spring"))),
+                new PostView(2, "B", "Content", List.of(new TagView(1, "java"))));
+
+        verify(postRepository).findIds(pageRequest);
+        verify(postRepository).findRowsByIdIn(List.of(7L, 2L));
+        verify(postRepository).findTagRowsByPostIdIn(List.of(7L, 2L));
+        verifyNoMoreInteractions(postRepository);
+    }
+
+    @Test
+    void testFindAllSummary_loadsTruncatedContent() {
+        Pageable pageRequest = PageRequest.of(0, 1);
+
+        when(postRepository.findIds(pageRequest)).thenReturn(new SliceImpl<>(List.of(3L)));
+        when(postRepository.findSummaryRowsByIdIn(List.of(3L), 200)).thenReturn(List.of(new PostRow(3, "C", "Cont")));
+
+        List<PostView> actual = postService.findAll(pageRequest, true);
+
+        assertThat(actual).containsExactly(new PostView(3, "C", "Cont", List.of()));
+
+        verify(postRepository).findSummaryRowsByIdIn(List.of(3L), 200);
+        verify(postRepository, never()).findRowsByIdIn(any());
+    }
 
     @Test
     void testFindByAllTags_returnsListOfPosts() {
         Set<String> tags = Set.of("tag1", "tag2");
 
-        when(postRepository.findByAllTags(tags, tags.size(), Pageable.unpaged())).thenReturn(Page.empty());
+        when(tagFilterPlanner.plan(tags, true)).thenReturn(new TagFilterPlanner.Plan(Strategy.GROUP_BY, List.of("tag1", "tag2")));
+        when(postRepository.findIdsByAllTags(tags, tags.size(), Pageable.unpaged())).thenReturn(new SliceImpl<>(List.of()));
 
-        List<Post> actual = postService.findByAllTags(tags, Pageable.unpaged());
+        List<PostView> actual = postService.findByAllTags(tags, Pageable.unpaged(), false);
 
         assertThat(actual).isNotNull();
 
-        verify(postRepository).findByAllTags(tags, tags.size(), Pageable.unpaged());
+        verify(postRepository).findIdsByAllTags(tags, tags.size(), Pageable.unpaged());
+    }
+
+    @Test
+    void testFindByAllTagsWithIndex_returnsRequestedPageInSortOrder() {
+        Set<String> tags = Set.of("tag1", "tag2");
+
+        when(tagFilterPlanner.plan(tags, true)).thenReturn(new TagFilterPlanner.Plan(Strategy.INDEX, List.of("tag1", "tag2")));
+        when(tagIndex.findPostIdsWithAllTags(tags)).thenReturn(Optional.of(Roaring64Bitmap.bitmapOf(1, 3, 5, 8, 9)));
+        when(postRepository.findRowsByIdIn(List.of(5L, 3L))).thenReturn(List.of(
+                new PostRow(3, "Title 3", "Content 3"),
+                new PostRow(5, "Title 5", "Content 5")));
+
+        List<PostView> actual = postService.findByAllTags(tags, PageRequest.of(1, 2, Sort.by("id").descending()), false);
+
+        assertThat(actual).extracting(PostView::id).containsExactly(5L, 3L);
+
+        verify(postRepository).findRowsByIdIn(List.of(5L, 3L));
+        verify(postRepository).findTagRowsByPostIdIn(List.of(5L, 3L));
+        verifyNoMoreInteractions(postRepository);
+    }
+
+    @Test
+    void testFindByAllTagsWithIndex_returnsEmptyListForPageOutOfRange() {
+        Set<String> tags = Set.of("tag1");
+
+        when(tagFilterPlanner.plan(tags, true)).thenReturn(new TagFilterPlanner.Plan(Strategy.INDEX, List.of("tag1")));
+        when(tagIndex.findPostIdsWithAllTags(tags)).thenReturn(Optional.of(Roaring64Bitmap.bitmapOf(1, 3)));
+
+        List<PostView> actual = postService.findByAllTags(tags, PageRequest.of(1, 2), false);
+
+        assertThat(actual).isEmpty();
+
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testFindByAllTagsCached_returnsCachedPageWithoutQuery() {
+        Set<String> tags = Set.of("java");
+        Pageable pageRequest = PageRequest.of(0, 10);
+        TagFilterResultCache.Key key = new TagFilterResultCache.Key(tags, 0, 10, Sort.unsorted(), false, "v.1");
+        List<PostView> expected = List.of(new PostView(1, "Title", "Content", List.of(new TagView(1, "java"))));
+
+        when(tagFilterResultCache.keyOf(tags, pageRequest, false)).thenReturn(Optional.of(key));
+        when(tagFilterResultCache.get(key)).thenReturn(Optional.of(expected));
+
+        List<PostView> actual = postService.findByAllTags(tags, pageRequest, false);
+
+        assertThat(actual).isEqualTo(expected);
+
+        verifyNoInteractions(postRepository, tagIndex, tagFilterPlanner);
+    }
+
+    @Test
+    void testFindByAllTagsNotCached_storesResult() {
+        Set<String> tags = Set.of("java");
+        Pageable pageRequest = PageRequest.of(0, 10);
+        TagFilterResultCache.Key key = new TagFilterResultCache.Key(tags, 0, 10, Sort.unsorted(), false, "v.1");
+
+        when(tagFilterResultCache.keyOf(tags, pageRequest, false)).thenReturn(Optional.of(key));
+        when(tagFilterPlanner.plan(tags, true)).thenReturn(new TagFilterPlanner.Plan(Strategy.EMPTY, List.of("java")));
+
+        postService.findByAllTags(tags, pageRequest, false);
+
+        verify(tagFilterResultCache).put(key, List.of());
+    }
+
+    @Test
+    void testFindByAllTagsWithUnknownTag_returnsEmptyListWithoutQuery() {
+        Set<String> tags = Set.of("java", "unknown");
+
+        when(tagFilterPlanner.plan(tags, false)).thenReturn(new TagFilterPlanner.Plan(Strategy.EMPTY, List.of("unknown", "java")));
+
+        List<PostView> actual = postService.findByAllTags(tags, PageRequest.of(0, 10, Sort.by("title")), false);
+
+        assertThat(actual).isEmpty();
+
+        verifyNoInteractions(postRepository, tagIndex);
+    }
+
+    @Test
+    void testFindByAllTagsWithRareTag_startsFromRarestTag() {
+        Set<String> tags = Set.of("common", "rare", "other");
+        Pageable pageRequest = PageRequest.of(0, 10, Sort.by("title"));
+
+        when(tagFilterPlanner.plan(tags, false))
+                .thenReturn(new TagFilterPlanner.Plan(Strategy.RAREST_FIRST, List.of("rare", "other", "common")));
+        when(postRepository.findIdsByRarestTag("rare", List.of("other", "common"), pageRequest)).thenReturn(List.of());
+
+        List<PostView> actual = postService.findByAllTags(tags, pageRequest, false);
+
+        assertThat(actual).isEmpty();
+
+        verify(postRepository).findIdsByRarestTag("rare", List.of("other", "common"), pageRequest);
+        verifyNoMoreInteractions(postRepository);
+    }
+
+    @Test
+    void testFindAfterWithIndex_seeksPastCursor() {
+        Set<String> tags = Set.of("tag1");
+        PostCursor cursor = new PostCursor("id", Sort.Direction.ASC, 3, null);
+
+        when(tagIndex.findPostIdsWithAllTags(tags)).thenReturn(Optional.of(Roaring64Bitmap.bitmapOf(1, 3, 5, 8, 9)));
+        when(postRepository.findRowsByIdIn(List.of(5L, 8L))).thenReturn(List.of(
+                new PostRow(8, "Title 8", "Content 8"),
+                new PostRow(5, "Title 5", "Content 5")));
+
+        List<PostView> actual = postService.findAfter(tags, cursor, 2, false);
+
+        assertThat(actual).extracting(PostView::id).containsExactly(5L, 8L);
+
+        verify(postRepository).findRowsByIdIn(List.of(5L, 8L));
+        verify(postRepository).findTagRowsByPostIdIn(List.of(5L, 8L));
+        verifyNoMoreInteractions(postRepository);
+    }
+
+    @Test
+    void testFindAfterWithoutTags_usesSeekQuery() {
+        PostCursor cursor = new PostCursor("title", Sort.Direction.DESC, 3, "Title");
+
+        when(postRepository.findIdsAfter(Set.of(), cursor, 2)).thenReturn(List.of());
+
+        List<PostView> actual = postService.findAfter(Set.of(), cursor, 2, false);
+
+        assertThat(actual).isEmpty();
+
+        verify(postRepository).findIdsAfter(Set.of(), cursor, 2);
+        verifyNoInteractions(tagIndex);
+    }
+
+    @Test
+    void testCountWithoutTags_usesCachedCounter() {
+        when(postCountCache.get()).thenReturn(25L);
+
+        assertThat(postService.count(Set.of())).isEqualTo(25);
+
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testCountWithTags_usesIndexCardinality() {
+        Set<String> tags = Set.of("tag1", "tag2");
+
+        when(tagIndex.findPostIdsWithAllTags(tags)).thenReturn(Optional.of(Roaring64Bitmap.bitmapOf(1, 3, 5)));
+
+        assertThat(postService.count(tags)).isEqualTo(3);
+
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testCountWithTagsBeforeIndexIsBuilt_usesCountQuery() {
+        Set<String> tags = Set.of("tag1", "tag2");
+
+        when(tagIndex.findPostIdsWithAllTags(tags)).thenReturn(Optional.empty());
+        when(postRepository.countByAllTags(tags, 2)).thenReturn(4L);
+
+        assertThat(postService.count(tags)).isEqualTo(4);
     }
 
     @Test
@@ -79,20 +334,89 @@ public class PostServiceTest {
         verify(postRepository).findById(testId);
     }
 
+    @Test
+    void testFindById_returnsBufferedPostWithoutQuery() {
+        long testId = 1;
+        Post buffered = getUpdatedPost();
+
+        when(tagUpdateBuffer.pending(testId)).thenReturn(Optional.of(buffered));
+
+        Post actual = postService.findById(testId);
+
+        assertThat(actual).isSameAs(buffered);
+
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testSearch_filtersByTagIndexAndKeepsRankOrder() {
+        Set<String> tags = Set.of("java");
+        ArgumentCaptor<LongPredicate> filter = ArgumentCaptor.forClass(LongPredicate.class);
+
+        when(tagIndex.findPostIdsWithAllTags(tags)).thenReturn(Optional.of(Roaring64Bitmap.bitmapOf(2, 5)));
+        when(postSearchIndex.search(eq("query"), filter.capture(), eq(0L), eq(10))).thenReturn(List.of(5L, 2L));
+        when(postRepository.findRowsByIdIn(List.of(5L, 2L))).thenReturn(List.of(
+                new PostRow(2, "Two", "Content"), new PostRow(5, "Five", "Content")));
+
+        List<PostView> actual = postService.search("query", tags, PageRequest.of(0, 10), false);
+
+        assertThat(actual).extracting(PostView::id).containsExactly(5L, 2L);
+        assertThat(filter.getValue().test(5)).isTrue();
+        assertThat(filter.getValue().test(3)).isFalse();
+    }
+
+    @Test
+    void testFindVersion_returnsVersion() {
+        when(postRepository.findVersionById(1)).thenReturn(Optional.of(3L));
+
+        assertThat(postService.findVersion(1)).isEqualTo(3);
+    }
+
+    @Test
+    void testFindVersion_throwsPostNotFoundException() {
+        when(postRepository.findVersionById(1)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(PostNotFoundException.class, () -> postService.findVersion(1));
+    }
+
     @Test
     void testCreate_returnsPost() {
         Post request = new Post(0, "Title", "Content", Set.of(new Tag("Tag")));
         Post expected = getTestPost();
 
-        when(tagService.enrichTagWithId(any(Tag.class))).thenReturn(new Tag(1, "Tag", new HashSet<>()));
+        when(tagService.resolveTags(any(Set.class))).thenReturn(Set.of(new Tag(1, "Tag", new HashSet<>())));
         when(postRepository.save(any(Post.class))).thenReturn(expected);
 
         Post actual = postService.create(request);
 
         assertThat(actual).isEqualTo(expected);
 
-        verify(tagService).enrichTagWithId(any(Tag.class));
+        verify(tagService).resolveTags(any(Set.class));
+        verify(tagService).countPosts(Set.of(), Set.of(new Tag(1, "Tag", new HashSet<>())));
         verify(postRepository).save(request);
+        verify(eventPublisher).publishEvent(any(PostChangedEvent.class));
+    }
+
+    @Test
+    void testCreateAll_resolvesTagsOnceForWholeChunk() {
+        Post first = new Post(0, "First", "Content", Set.of(new Tag(" Java"), new Tag("Spring")));
+        Post second = new Post(0, "Second", "Content", Set.of(new Tag("java")));
+        Tag java = new Tag(1, "java", new HashSet<>());
+        Tag spring = new Tag(2, "spring", new HashSet<>());
+
+        when(tagService.resolveTags(any(Set.class))).thenReturn(Set.of(java, spring));
+        when(postRepository.saveAll(List.of(first, second))).thenReturn(List.of(first, second));
+
+        List<Post> actual = postService.createAll(List.of(first, second));
+
+        assertThat(actual).containsExactly(first, second);
+        assertThat(first.getTags()).containsExactlyInAnyOrder(java, spring);
+        assertThat(second.getTags()).containsExactly(java);
+
+        verify(tagService).resolveTags(any(Set.class));
+        verify(postRepository).flush();
+        verify(tagService).countPosts(eq(List.of()), argThat(tags -> tags.size() == 3 && tags.containsAll(List.of(java, spring))));
+        verify(eventPublisher, times(2)).publishEvent(any(PostChangedEvent.class));
     }
 
     @Test
@@ -101,14 +425,14 @@ public class PostServiceTest {
         Post expected = getTestPost();
         Set<Tag> tagsForUpdate = expected.getTags();
 
-        when(postRepository.findById(testId)).thenReturn(Optional.of(expected));
-        when(tagService.enrichTagWithId(any(Tag.class))).thenReturn(expected.getTags().stream().findAny().get());
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(expected));
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(expected.getTags());
 
         Post actual = postService.updateTags(testId, tagsForUpdate);
 
         assertThat(actual).isEqualTo(expected);
 
-        verify(postRepository).findById(testId);
+        verify(postRepository).findWithTagsById(testId);
         verifyNoMoreInteractions(tagService);
         verifyNoMoreInteractions(postRepository);
     }
@@ -118,20 +442,95 @@ public class PostServiceTest {
         long testId = 1;
         Post existingPost = getTestPost();
         Post expected = getUpdatedPost();
+        Set<Tag> collection = existingPost.getTags();
+        Set<Tag> oldTags = Set.copyOf(collection);
         Set<Tag> tagsForUpdate = getTagsForUpdate();
 
-        when(postRepository.findById(testId)).thenReturn(Optional.of(existingPost));
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(tagsForUpdate);
         when(postRepository.saveAndFlush(existingPost)).thenReturn(expected);
-        doNothing().when(tagService).removeTagIfNoMorePostsAssociated(any(Set.class));
 
         Post actual = postService.updateTags(testId, tagsForUpdate);
 
         assertThat(actual).isEqualTo(expected);
+        assertThat(existingPost.getTags()).isSameAs(collection).isEqualTo(tagsForUpdate);
 
-        verify(postRepository).findById(testId);
-        verify(tagService, times(3)).enrichTagWithId(any(Tag.class));
+        verify(postRepository).findWithTagsById(testId);
+        verify(tagService).resolveTags(tagsForUpdate);
+        verify(postRepository).saveAndFlush(existingPost);
+        verify(tagService).countPosts(oldTags, tagsForUpdate);
+        verify(eventPublisher).publishEvent(any(PostChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateTagsWithSweptTag_resolvesTagsAgainAndRetries() {
+        long testId = 1;
+        Post reloadedPost = getTestPost();
+        Set<Tag> tagsForUpdate = getTagsForUpdate();
+
+        // The rolled back attempt changed its copy of the post, the retry reads the post again
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(getTestPost()), Optional.of(reloadedPost));
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(tagsForUpdate);
+        when(postRepository.saveAndFlush(any(Post.class)))
+                .thenThrow(new DataIntegrityViolationException("posts_tags", new SQLException("Referential integrity", "23506")))
+                .thenReturn(reloadedPost);
+
+        Post actual = postService.updateTags(testId, tagsForUpdate);
+
+        assertThat(actual).isSameAs(reloadedPost);
+
+        verify(tagService).evictCachedIds(Set.of("tag 1", "tag 2", "tag 3"));
+        verify(tagService, times(2)).resolveTags(tagsForUpdate);
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher).publishEvent(any(PostChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateTagsWithOtherIntegrityViolation_doesNotRetry() {
+        long testId = 1;
+        Post existingPost = getTestPost();
+        Set<Tag> tagsForUpdate = getTagsForUpdate();
+
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(tagsForUpdate);
+        when(postRepository.saveAndFlush(existingPost))
+                .thenThrow(new DataIntegrityViolationException("post", new SQLException("Unique index", "23505")));
+
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> postService.updateTags(testId, tagsForUpdate));
+
+        verify(tagService, never()).evictCachedIds(any());
         verify(postRepository).saveAndFlush(existingPost);
-        verify(tagService).removeTagIfNoMorePostsAssociated(any(Set.class));
+    }
+
+    @Test
+    void testUpdateTagsWithStaleVersion_throwsPostVersionConflictException() {
+        long testId = 1;
+        Post existingPost = getTestPost();
+        existingPost.setVersion(2);
+
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+
+        Assertions.assertThrows(PostVersionConflictException.class,
+                () -> postService.updateTags(testId, getTagsForUpdate(), OptionalLong.of(1)));
+
+        verifyNoInteractions(tagService);
+        verify(postRepository, never()).saveAndFlush(any(Post.class));
+    }
+
+    @Test
+    void testUpdateTagsWithCurrentVersion_updatesTags() {
+        long testId = 1;
+        Post existingPost = getTestPost();
+        existingPost.setVersion(2);
+        Set<Tag> tagsForUpdate = getTagsForUpdate();
+
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(tagsForUpdate);
+        when(postRepository.saveAndFlush(existingPost)).thenReturn(existingPost);
+
+        Post actual = postService.updateTags(testId, tagsForUpdate, OptionalLong.of(2));
+
+        assertThat(actual.getTags()).isEqualTo(tagsForUpdate);
     }
 
     @Test
@@ -139,7 +538,7 @@ public class PostServiceTest {
         long testId = 1;
         Set<Tag> tagsForUpdate = getTagsForUpdate();
 
-        when(postRepository.findById(testId)).thenReturn(Optional.empty());
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(PostNotFoundException.class, () -> postService.updateTags(testId, getTagsForUpdate()));
 
@@ -147,28 +546,89 @@ public class PostServiceTest {
         verifyNoMoreInteractions(postRepository);
     }
 
+    @Test
+    void testUpdateTagsBuffered_handsResolvedTagsToBufferWithoutWriting() {
+        long testId = 1;
+        Post existingPost = getTestPost();
+        Post buffered = getUpdatedPost();
+        Set<Tag> tagsForUpdate = getTagsForUpdate();
+        ArgumentCaptor<Supplier<Post>> stored = ArgumentCaptor.forClass(Supplier.class);
+
+        when(tagUpdateBuffer.isEnabled()).thenReturn(true);
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(tagsForUpdate);
+        when(tagUpdateBuffer.update(eq(testId), eq(tagsForUpdate), eq(OptionalLong.of(0)), stored.capture())).thenReturn(buffered);
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+
+        Post actual = postService.updateTags(testId, tagsForUpdate, OptionalLong.of(0));
+
+        assertThat(actual).isSameAs(buffered);
+        assertThat(stored.getValue().get()).isSameAs(existingPost);
+
+        verify(postRepository).findWithTagsById(testId);
+        verifyNoMoreInteractions(postRepository);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testApplyBufferedTags_writesTagsUnderBufferedVersion() {
+        long testId = 1;
+        Post existingPost = getTestPost();
+        Set<Tag> tagsForUpdate = getTagsForUpdate();
+
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+        when(tagService.resolveTags(tagsForUpdate)).thenReturn(tagsForUpdate);
+        when(postRepository.saveAndFlush(existingPost)).thenAnswer(invocation -> {
+            existingPost.setVersion(3);
+            return existingPost;
+        });
+
+        postService.applyBufferedTags(testId, tagsForUpdate, 3);
+
+        InOrder inOrder = inOrder(postRepository);
+        inOrder.verify(postRepository).raiseVersion(testId, 2);
+        inOrder.verify(postRepository).findWithTagsById(testId);
+        inOrder.verify(postRepository).saveAndFlush(existingPost);
+        verify(postRepository, never()).raiseVersion(testId, 3);
+    }
+
+    @Test
+    void testApplyBufferedTagsAlreadyStored_stillRaisesVersion() {
+        long testId = 1;
+        Post existingPost = getTestPost();
+        Set<Tag> storedTags = existingPost.getTags();
+
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
+        when(tagService.resolveTags(storedTags)).thenReturn(Set.copyOf(storedTags));
+
+        postService.applyBufferedTags(testId, storedTags, 2);
+
+        verify(postRepository).raiseVersion(testId, 1);
+        verify(postRepository).raiseVersion(testId, 2);
+        verify(postRepository, never()).saveAndFlush(any(Post.class));
+    }
+
     @Test
     void testDelete_Success() {
         long testId = 1;
         Post existingPost = getTestPost();
 
-        when(postRepository.findById(testId)).thenReturn(Optional.of(existingPost));
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.of(existingPost));
 
         doNothing().when(postRepository).deleteById(testId);
-        doNothing().when(tagService).removeTagIfNoMorePostsAssociated(any(Set.class));
 
         postService.delete(testId);
 
-        verify(postRepository).findById(testId);
+        verify(postRepository).findWithTagsById(testId);
         verify(postRepository).deleteById(testId);
-        verify(tagService).removeTagIfNoMorePostsAssociated(any(Set.class));
+        verify(tagService).countPosts(existingPost.getTags(), Set.of());
+        verify(eventPublisher).publishEvent(any(PostChangedEvent.class));
     }
 
     @Test
     void testDelete_throwsPostNotFoundException() {
         long testId = 1;
 
-        when(postRepository.findById(testId)).thenReturn(Optional.empty());
+        when(postRepository.findWithTagsById(testId)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(PostNotFoundException.class, () -> postService.delete(testId));
 
@@ -177,8 +637,8 @@ public class PostServiceTest {
     }
 
     private Post getTestPost() {
-        return new Post(1, "Title", "Content", Set.of(
-                new Tag(1, "Tag", new HashSet<>())));
+        return new Post(1, "Title", "Content", new HashSet<>(Set.of(
+                new Tag(1, "Tag", new HashSet<>()))));
     }
 
     private Post getUpdatedPost() {
@@ -0,0 +1,287 @@
+package com.epam.unit.service;
+
+import com.epam.event.PostChangedEvent;
+import com.epam.exception.PostNotFoundException;
+import com.epam.exception.PostVersionConflictException;
+import com.epam.index.PostResponseCache;
+import com.epam.model.Post;
+import com.epam.model.Tag;
+import com.epam.service.PostService;
+import com.epam.service.PostTagUpdateBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PostTagUpdateBufferTest {
+    PostTagUpdateBuffer tagUpdateBuffer;
+
+    @Mock
+    ObjectProvider<PostService> postServiceProvider;
+
+    @Mock
+    PostService postService;
+
+    @Mock
+    PostResponseCache postResponseCache;
+
+    @Mock
+    TaskScheduler taskScheduler;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        tagUpdateBuffer = new PostTagUpdateBuffer(postServiceProvider, postResponseCache, taskScheduler, meterRegistry,
+                Duration.ofMillis(200), 3);
+    }
+
+    @Test
+    void testUpdate_schedulesOneFlushForUpdatesInSameWindow() {
+        Post first = buffer(1, "first");
+        Post second = buffer(1, "second");
+
+        assertThat(tagUpdateBuffer.pending(1)).containsSame(second);
+        assertThat(first.getVersion()).isEqualTo(1);
+        assertThat(second.getVersion()).isEqualTo(2);
+        assertThat(meterRegistry.counter("blog.posts.tag-updates.coalesced").count()).isEqualTo(1);
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        verify(postResponseCache, times(2)).invalidate(1);
+    }
+
+    @Test
+    void testUpdate_buildsOnPendingUpdateWithoutLoadingStoredPost() {
+        buffer(1, "first");
+
+        Post second = tagUpdateBuffer.update(1, tags("second"), OptionalLong.of(1), () -> {
+            throw new AssertionError("Stored post loaded although an update is pending");
+        });
+
+        assertThat(second.getTags()).isEqualTo(tags("second"));
+        assertThat(second.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void testUpdateWithStaleVersion_throwsPostVersionConflictException() {
+        Post first = buffer(1, "first");
+
+        Assertions.assertThrows(PostVersionConflictException.class,
+                () -> tagUpdateBuffer.update(1, tags("second"), OptionalLong.of(0), () -> storedPost(1)));
+
+        assertThat(tagUpdateBuffer.pending(1)).containsSame(first);
+        verify(postResponseCache).invalidate(1);
+    }
+
+    @Test
+    void testUpdate_letsOnlyOneOfConcurrentUpdatesExpectingSameVersionThrough() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CyclicBarrier start = new CyclicBarrier(2);
+        try {
+            List<Future<Post>> updates = new ArrayList<>();
+            for (String tag : List.of("first", "second")) {
+                updates.add(executor.submit(() -> {
+                    start.await();
+                    return tagUpdateBuffer.update(1, tags(tag), OptionalLong.of(0), () -> storedPost(1));
+                }));
+            }
+
+            List<Throwable> conflicts = new ArrayList<>();
+            for (Future<Post> update : updates) {
+                try {
+                    assertThat(update.get().getVersion()).isEqualTo(1);
+                } catch (ExecutionException e) {
+                    conflicts.add(e.getCause());
+                }
+            }
+
+            assertThat(conflicts).singleElement().isInstanceOf(PostVersionConflictException.class);
+            assertThat(tagUpdateBuffer.pending(1)).get().extracting(Post::getVersion).isEqualTo(1L);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testUpdateWithStoredTags_buffersNothing() {
+        Post actual = tagUpdateBuffer.update(1, tags("stored"), OptionalLong.empty(), () -> storedPost(1));
+
+        assertThat(actual.getVersion()).isZero();
+        assertThat(tagUpdateBuffer.pending(1)).isEmpty();
+        verifyNoInteractions(taskScheduler, postResponseCache);
+    }
+
+    @Test
+    void testFlush_appliesLatestTagsOnceUnderTheirVersionAndClearsPending() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+
+        buffer(1, "first");
+        Post latest = buffer(1, "latest");
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).isEmpty();
+        verify(postService).applyBufferedTags(1, latest.getTags(), 2);
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testFlush_schedulesAnotherFlushForUpdateArrivingMeanwhile() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        doAnswer(invocation -> buffer(1, "newer"))
+                .when(postService).applyBufferedTags(anyLong(), any(Set.class), anyLong());
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).get().extracting(Post::getTags).isEqualTo(tags("newer"));
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testFlush_dropsUpdateOfDeletedPost() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        when(postService.applyBufferedTags(anyLong(), any(Set.class), anyLong())).thenThrow(new PostNotFoundException(1));
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).isEmpty();
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testFlush_keepsUpdateAndRetriesAfterTransientFailure() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        when(postService.applyBufferedTags(anyLong(), any(Set.class), anyLong())).thenThrow(new CannotAcquireLockException("Lock timeout"));
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).isPresent();
+        assertThat(meterRegistry.counter("blog.posts.tag-updates.failed").count()).isZero();
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testFlush_dropsUpdateAfterLastAttempt() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        when(postService.applyBufferedTags(anyLong(), any(Set.class), anyLong())).thenThrow(new CannotAcquireLockException("Lock timeout"));
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+        tagUpdateBuffer.flush(1);
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).isEmpty();
+        assertThat(meterRegistry.counter("blog.posts.tag-updates.failed").count()).isEqualTo(1);
+        verify(postService, times(3)).applyBufferedTags(anyLong(), any(Set.class), anyLong());
+        verify(taskScheduler, times(3)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testFlush_dropsUpdateFailingOtherwiseAtOnce() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        when(postService.applyBufferedTags(anyLong(), any(Set.class), anyLong())).thenThrow(new DataIntegrityViolationException("Value too long"));
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).isEmpty();
+        assertThat(meterRegistry.counter("blog.posts.tag-updates.failed").count()).isEqualTo(1);
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testFlush_dropsResponseCachedFromDroppedUpdate() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        when(postService.applyBufferedTags(anyLong(), any(Set.class), anyLong())).thenThrow(new DataIntegrityViolationException("Value too long"));
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        InOrder inOrder = inOrder(postResponseCache, postService);
+        inOrder.verify(postResponseCache).invalidate(1);
+        inOrder.verify(postService).applyBufferedTags(anyLong(), any(Set.class), anyLong());
+        inOrder.verify(postResponseCache).invalidate(1);
+    }
+
+    @Test
+    void testFlush_dropsResponseCachedFromUpdateOfDeletedPost() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        when(postService.applyBufferedTags(anyLong(), any(Set.class), anyLong())).thenThrow(new PostNotFoundException(1));
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        verify(postResponseCache, times(2)).invalidate(1);
+    }
+
+    @Test
+    void testFlush_keepsUpdateArrivingDuringFailedWrite() {
+        when(postServiceProvider.getObject()).thenReturn(postService);
+        doAnswer(invocation -> {
+            buffer(1, "newer");
+            throw new DataIntegrityViolationException("Value too long");
+        }).when(postService).applyBufferedTags(anyLong(), any(Set.class), anyLong());
+
+        buffer(1, "first");
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).get().extracting(Post::getTags).isEqualTo(tags("newer"));
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testOnPostChanged_discardsUpdatesOfDeletedPost() {
+        buffer(1, "first");
+        tagUpdateBuffer.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.DELETED, 1, Set.of("first"), Set.of()));
+        tagUpdateBuffer.flush(1);
+
+        assertThat(tagUpdateBuffer.pending(1)).isEmpty();
+        verify(postServiceProvider, never()).getObject();
+    }
+
+    private Post buffer(long id, String tag) {
+        return tagUpdateBuffer.update(id, tags(tag), OptionalLong.empty(), () -> storedPost(id));
+    }
+
+    private static Post storedPost(long id) {
+        return new Post(id, "Title", "Content", tags("stored"));
+    }
+
+    private static Set<Tag> tags(String name) {
+        return Set.of(new Tag(name.length(), name, new HashSet<>()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.epam.unit.service;
+
+import com.epam.dto.PostView;
+import com.epam.dto.PostWithTagRow;
+import com.epam.dto.TagView;
+import com.epam.exception.PostNotFoundException;
+import com.epam.repository.ReactivePostRepository;
+import com.epam.service.ReactivePostService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactivePostServiceTest {
+    @InjectMocks
+    ReactivePostService reactivePostService;
+
+    @Mock
+    ReactivePostRepository reactivePostRepository;
+
+    @Test
+    void testFindAll_groupsTagRowsIntoPosts() {
+        when(reactivePostRepository.findRows(20, 10)).thenReturn(Flux.just(
+                new PostWithTagRow(1, "Title 1", "Content", 1L, "java"),
+                new PostWithTagRow(1, "Title 1", "Content", 2L, "spring"),
+                new PostWithTagRow(2, "Title 2", "Content", null, null)));
+
+        StepVerifier.create(reactivePostService.findAll(Set.of(), PageRequest.of(2, 10)))
+                .expectNext(new PostView(1, "Title 1", "Content", List.of(new TagView(1, "java"), new TagView(2, "spring"))))
+                .expectNext(new PostView(2, "Title 2", "Content", List.of()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindAll_withTags_filtersByAllTags() {
+        when(reactivePostRepository.findRowsByAllTags(Set.of("java"), 0, 5)).thenReturn(Flux.just(
+                new PostWithTagRow(3, "Title 3", "Content", 1L, "java")));
+
+        StepVerifier.create(reactivePostService.findAll(Set.of("java"), PageRequest.of(0, 5)))
+                .expectNext(new PostView(3, "Title 3", "Content", List.of(new TagView(1, "java"))))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindAll_requestsOnlyWhatIsConsumed() {
+        when(reactivePostRepository.findRows(0, 10)).thenReturn(Flux.range(1, 10)
+                .map(id -> new PostWithTagRow(id, "Title " + id, "Content", null, null)));
+
+        StepVerifier.create(reactivePostService.findAll(Set.of(), PageRequest.of(0, 10)), 1)
+                .expectNextCount(1)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testFindById_notFound() {
+        when(reactivePostRepository.findRowsById(100)).thenReturn(Flux.empty());
+
+        StepVerifier.create(reactivePostService.findById(100))
+                .expectError(PostNotFoundException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,101 @@
+package com.epam.unit.service;
+
+import com.epam.index.TagIndex;
+import com.epam.repository.TagPostCountRepository;
+import com.epam.service.TagFilterPlanner;
+import com.epam.service.TagFilterPlanner.Plan;
+import com.epam.service.TagFilterPlanner.Strategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TagFilterPlannerTest {
+    TagFilterPlanner tagFilterPlanner;
+
+    @Mock
+    TagIndex tagIndex;
+
+    @Mock
+    TagPostCountRepository tagPostCountRepository;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        tagFilterPlanner = new TagFilterPlanner(tagIndex, tagPostCountRepository, meterRegistry, 0.1);
+    }
+
+    @Test
+    void testPlan_unknownTagIsEmpty() {
+        Set<String> tags = Set.of("java", "unknown");
+
+        when(tagIndex.findPostCounts(tags)).thenReturn(Optional.of(Map.of("java", 500L, "unknown", 0L)));
+
+        Plan actual = tagFilterPlanner.plan(tags, true);
+
+        assertThat(actual).isEqualTo(new Plan(Strategy.EMPTY, List.of("unknown", "java")));
+        assertThat(meterRegistry.counter("blog.posts.tag.filter", "strategy", "empty").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPlan_usesIndexForIdOrder() {
+        Set<String> tags = Set.of("java", "spring");
+
+        when(tagIndex.findPostCounts(tags)).thenReturn(Optional.of(Map.of("java", 500L, "spring", 400L)));
+        when(tagIndex.isReady()).thenReturn(true);
+
+        Plan actual = tagFilterPlanner.plan(tags, true);
+
+        assertThat(actual).isEqualTo(new Plan(Strategy.INDEX, List.of("spring", "java")));
+        assertThat(meterRegistry.counter("blog.posts.tag.filter", "strategy", "index").count()).isEqualTo(1);
+        verifyNoInteractions(tagPostCountRepository);
+    }
+
+    @Test
+    void testPlan_startsFromRareTagWithCountersWhenIndexIsNotReady() {
+        Set<String> tags = Set.of("java", "rare");
+
+        when(tagIndex.findPostCounts(tags)).thenReturn(Optional.empty());
+        when(tagPostCountRepository.findPostCounts(tags)).thenReturn(Map.of("java", 500L, "rare", 3L));
+
+        Plan actual = tagFilterPlanner.plan(tags, true);
+
+        assertThat(actual).isEqualTo(new Plan(Strategy.RAREST_FIRST, List.of("rare", "java")));
+    }
+
+    @Test
+    void testPlan_groupsCommonTags() {
+        Set<String> tags = Set.of("java", "spring");
+
+        when(tagIndex.findPostCounts(tags)).thenReturn(Optional.of(Map.of("java", 500L, "spring", 400L)));
+
+        Plan actual = tagFilterPlanner.plan(tags, false);
+
+        assertThat(actual.strategy()).isEqualTo(Strategy.GROUP_BY);
+        assertThat(meterRegistry.counter("blog.posts.tag.filter", "strategy", "group_by").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPlan_singleTagNeedsNoGrouping() {
+        Set<String> tags = Set.of("java");
+
+        when(tagIndex.findPostCounts(tags)).thenReturn(Optional.of(Map.of("java", 500L)));
+
+        Plan actual = tagFilterPlanner.plan(tags, false);
+
+        assertThat(actual.strategy()).isEqualTo(Strategy.RAREST_FIRST);
+    }
+}
@@ -1,24 +1,37 @@
 package com.epam.unit.service;
 
-import com.epam.model.Post;
 import com.epam.model.Tag;
+import com.epam.repository.TagPostCountRepository;
 import com.epam.repository.TagRepository;
 import com.epam.service.TagService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -30,59 +43,137 @@ public class TagServiceTest {
     @Mock
     TagRepository tagRepository;
 
+    @Mock
+    TagPostCountRepository tagPostCountRepository;
+
+    @Spy
+    Cache<String, Long> tagIdCache = Caffeine.newBuilder().build();
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Test
-    void testEnrichTagWithId_returnsExistingTag() {
-        Tag tag = new Tag(0, " NamE ", null);
-        String normalizedName = tag.getName().trim().toLowerCase();
-        Tag expected = getTestTag();
+    void testResolveTags_returnsExistingTagsWithOneQuery() {
+        Set<Tag> request = Set.of(new Tag(" NamE "), new Tag("other"));
+        Set<Tag> expected = Set.of(getTestTag(), new Tag(2, "other", new HashSet<>()));
 
-        when(tagRepository.findByName(normalizedName)).thenReturn(Optional.of(expected));
+        when(tagRepository.findByNameIn(Set.of("name", "other"))).thenReturn(List.copyOf(expected));
 
-        Tag actual = tagService.enrichTagWithId(tag);
+        Set<Tag> actual = tagService.resolveTags(request);
 
         assertThat(actual).isEqualTo(expected);
 
-        verify(tagRepository).findByName(normalizedName);
+        verify(tagRepository).findByNameIn(Set.of("name", "other"));
         verifyNoMoreInteractions(tagRepository);
+        verifyNoInteractions(jdbcTemplate);
     }
 
     @Test
-    void testEnrichTagWithId_returnsCreatedTag() {
-        Tag tag = new Tag(0, " NamE ", null);
-        String normalizedName = tag.getName().trim().toLowerCase();
+    void testResolveTags_insertsMissingTagsInOneBatch() {
+        Tag existing = new Tag(2, "other", new HashSet<>());
+        Tag created = getTestTag();
+
+        when(tagRepository.findByNameIn(Set.of("name", "other"))).thenReturn(List.of(existing));
+        when(tagRepository.findByNameIn(Set.of("name"))).thenReturn(List.of(created));
+
+        Set<Tag> actual = tagService.resolveTags(Set.of(new Tag("name"), new Tag("other")));
+
+        assertThat(actual).containsExactlyInAnyOrder(existing, created);
+
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        verify(tagPostCountRepository).createStripes(List.of(1L));
+    }
+
+    @Test
+    void testResolveTags_reloadsTagsCreatedConcurrently() {
         Tag expected = getTestTag();
 
-        when(tagRepository.save(any(Tag.class))).thenReturn(expected);
-        when(tagRepository.findByName(normalizedName)).thenReturn(Optional.empty());
+        when(tagRepository.findByNameIn(Set.of("name")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(expected));
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DuplicateKeyException("name"));
 
-        Tag actual = tagService.enrichTagWithId(tag);
+        Set<Tag> actual = tagService.resolveTags(Set.of(new Tag("name")));
 
-        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).containsExactly(expected);
+
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        verify(tagRepository, times(2)).findByNameIn(Set.of("name"));
+    }
+
+    @Test
+    void testResolveTags_givesUpAfterBoundedAttempts() {
+        when(tagRepository.findByNameIn(Set.of("name"))).thenReturn(List.of());
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DuplicateKeyException("name"));
 
-        verify(tagRepository).save(any(Tag.class));
-        verify(tagRepository).findByName(normalizedName);
+        Assertions.assertThrows(DuplicateKeyException.class, () -> tagService.resolveTags(Set.of(new Tag("name"))));
+
+        verify(jdbcTemplate, times(3)).execute(any(ConnectionCallback.class));
     }
 
     @Test
-    void testRemoveTagIfNoMorePostsAssociated() {
-        Set<Tag> tags = getTagsForDeletion();
+    void testResolveTags_usesCachedIdOnSecondLookup() {
+        Tag expected = getTestTag();
+
+        when(tagRepository.findByNameIn(Set.of("name"))).thenReturn(List.of(expected));
 
-        doNothing().when(tagRepository).delete(any(Tag.class));
+        tagService.resolveTags(Set.of(new Tag("Name")));
+        Set<Tag> actual = tagService.resolveTags(Set.of(new Tag(" name")));
 
-        tagService.removeTagIfNoMorePostsAssociated(tags);
+        assertThat(actual).containsExactly(expected);
 
-        verify(tagRepository, times(2)).delete(any(Tag.class));
+        verify(tagRepository).findByNameIn(Set.of("name"));
+        verifyNoMoreInteractions(tagRepository);
     }
 
-    private Tag getTestTag() {
-        return new Tag(1, "name", new HashSet<>());
+    @Test
+    void testResolveTags_cachesCreatedTag() {
+        when(tagRepository.findByNameIn(Set.of("name")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(getTestTag()));
+
+        tagService.resolveTags(Set.of(new Tag("name")));
+
+        assertThat(tagIdCache.getIfPresent("name")).isEqualTo(1L);
+        assertThat(meterRegistry.counter("blog.tags.created").count()).isEqualTo(1);
     }
 
-    private Set<Tag> getTagsForDeletion() {
-        return Set.of(
-                new Tag(1, "Tag 1", new HashSet<>()),
-                new Tag(2, "Tag 2", new HashSet<>()),
-                new Tag(3, "Tag 3", Set.of(new Post()))
-        );
+    @Test
+    void testResolveTags_doesNotCacheCreatedTagOnRollback() {
+        when(tagRepository.findByNameIn(Set.of("name")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(getTestTag()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tagService.resolveTags(Set.of(new Tag("name")));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tagIdCache.getIfPresent("name")).isNull();
+    }
+
+    @Test
+    void testCountPosts_addsOnlyChangedTagsInIdOrder() {
+        Tag kept = new Tag(1, "kept", new HashSet<>());
+        Tag removed = new Tag(3, "removed", new HashSet<>());
+        Tag added = new Tag(2, "added", new HashSet<>());
+
+        tagService.countPosts(Set.of(kept, removed), List.of(kept, added, added));
+
+        verify(tagPostCountRepository).add(new TreeMap<>(Map.of(2L, 2, 3L, -1)));
+    }
+
+    private Tag getTestTag() {
+        return new Tag(1, "name", new HashSet<>());
     }
 }
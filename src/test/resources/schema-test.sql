@@ -1,7 +1,10 @@
+CREATE SEQUENCE post_id_seq START WITH 1000 INCREMENT BY 50;
+
 CREATE TABLE post (
-    id bigint AUTO_INCREMENT PRIMARY KEY,
+    id bigint PRIMARY KEY,
     title VARCHAR(255) NOT NULL,
-    content TEXT NOT NULL
+    content TEXT NOT NULL,
+    version bigint NOT NULL DEFAULT 0
 );
 
 CREATE TABLE tag (
@@ -14,5 +17,15 @@ CREATE TABLE posts_tags (
     tag_id bigint,
     PRIMARY KEY (post_id, tag_id),
     FOREIGN KEY (post_id) REFERENCES post (id) ON DELETE CASCADE,
+    FOREIGN KEY (tag_id) REFERENCES tag (id)
+);
+
+CREATE INDEX posts_tags_tag_id_post_id_idx ON posts_tags (tag_id, post_id);
+
+CREATE TABLE tag_post_count (
+    tag_id bigint,
+    stripe int,
+    post_count bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (tag_id, stripe),
     FOREIGN KEY (tag_id) REFERENCES tag (id) ON DELETE CASCADE
 );